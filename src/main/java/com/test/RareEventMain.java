@@ -0,0 +1,67 @@
+package com.test;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.RareEventAccumulator;
+import com.test.models.SimulationParameters;
+import com.test.models.enums.RareEventMethod;
+import com.test.services.RareEventSimulationService;
+import com.test.services.SimulationResultAnalyzer;
+import lombok.SneakyThrows;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.test.models.SimulationParameters.generateScenarioId;
+
+public class RareEventMain {
+
+    @SneakyThrows
+    public static void main(String[] args) {
+        double[] baseBetAmounts = {1};
+        int[] maxRoundsOptions = {10, 25, 50, 100};
+        RareEventMethod method = RareEventMethod.SPLITTING;
+
+        // Number of independent root simulations per scenario, each may branch into several trajectories
+        final int rootSimulationsPerCombination = 10000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        List<Future<AggregatedMetrics>> futures = new ArrayList<>();
+        for (double baseBetAmount : baseBetAmounts) {
+            for (int maxRounds : maxRoundsOptions) {
+                SimulationParameters parameters = SimulationParameters.builder()
+                        .baseBetAmount(baseBetAmount)
+                        .maxRounds(maxRounds)
+                        .build();
+
+                futures.add(executorService.submit(() -> {
+                    RareEventAccumulator accumulator = RareEventSimulationService.builder()
+                            .parameters(parameters)
+                            .method(method)
+                            .build()
+                            .run(rootSimulationsPerCombination);
+
+                    AggregatedMetrics metrics = accumulator.toAggregatedMetrics(generateScenarioId(parameters));
+                    System.out.printf("maxRounds %d: probability of ruin %.6f +/- %.1f%% after %d spins%n",
+                            maxRounds, metrics.getProbabilityOfRuin(), 100 * metrics.getProbabilityOfRuinRelativeError(),
+                            accumulator.getSpins());
+                    return metrics;
+                }));
+            }
+        }
+
+        List<AggregatedMetrics> results = new ArrayList<>();
+        for (Future<AggregatedMetrics> future : futures) {
+            results.add(future.get());
+        }
+
+        executorService.shutdown();
+        if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
+
+        new SimulationResultAnalyzer().writeAggregatedReport(results, new File("simulation_results_rare_event.csv"));
+    }
+}
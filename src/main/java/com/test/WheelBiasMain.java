@@ -0,0 +1,32 @@
+package com.test;
+
+import com.test.models.WheelBiasReport;
+import com.test.services.WheelBiasDetector;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class WheelBiasMain {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: WheelBiasMain <spin log> [<spin log> ...]");
+            return;
+        }
+
+        List<Path> logFiles = Arrays.stream(args)
+                .map(Path::of)
+                .toList();
+
+        WheelBiasDetector detector = WheelBiasDetector.builder().build();
+        List<WheelBiasReport> reports = detector.analyze(logFiles);
+        detector.writeReport(reports, new File("wheel_bias_report.csv"));
+
+        reports.stream()
+                .filter(WheelBiasReport::isPositiveExpectation)
+                .forEach(report -> System.out.println("Table " + report.getTableId() + " is biased, " + report.getBestBet()
+                        + " has an expected return of " + report.getBestBetExpectedReturn() + " per unit staked"));
+    }
+}
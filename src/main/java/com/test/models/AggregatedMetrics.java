@@ -8,13 +8,20 @@ import java.util.Arrays;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class AggregatedMetrics {
     private long scenarioId;
+    // Identifies the wheel of the scenario outside the process, see WheelDefinition.getDescription()
+    private String wheel;
+    private int simulationCount;
     private double averageProfit;
     private double medianProfit;
     private double profitStdDev;
     private double probabilityOfRuin;
+    private double probabilityOfRuinCiLower;
+    private double probabilityOfRuinCiUpper;
+    // Half-width of the 95% interval relative to the estimate
+    private double probabilityOfRuinRelativeError;
     private double probabilityOfReachingTarget;
     private double averageRoundsPlayed;
     private double confidenceIntervalLower;
@@ -9,6 +9,7 @@ import lombok.Data;
 @Builder
 public class Bet {
     private BetType type;
-    private double amount;
+    // In minor units, see Money
+    private long amount;
     private BetOption bet;
 }
@@ -0,0 +1,73 @@
+package com.test.models;
+
+import com.test.models.enums.Color;
+import lombok.Data;
+
+/**
+ * State of one martingale simulation between two spins. Amounts are in minor units, see Money.
+ */
+@Data
+public class MartingaleState {
+    private long baseBetAmount;
+    private long initialBalance;
+    private long estimatedProfit;
+
+    private Color betColor;
+    private long balance;
+    private long betAmount;
+
+    private long totalProfit;
+    private long totalLoss;
+
+    private int maxWinStreak;
+    private int currentWinStreak;
+    private int maxLossStreak;
+    private int currentLossStreak;
+
+    private boolean targetReached;
+    private boolean outOfMoney;
+
+    private int roundsPlayed;
+
+    public boolean canPlaceBet() {
+        return balance >= betAmount;
+    }
+
+    public void reset() {
+        baseBetAmount = 0;
+        initialBalance = 0;
+        estimatedProfit = 0;
+        betColor = null;
+        balance = 0;
+        betAmount = 0;
+        totalProfit = 0;
+        totalLoss = 0;
+        maxWinStreak = 0;
+        currentWinStreak = 0;
+        maxLossStreak = 0;
+        currentLossStreak = 0;
+        targetReached = false;
+        outOfMoney = false;
+        roundsPlayed = 0;
+    }
+
+    public MartingaleState copy() {
+        MartingaleState copy = new MartingaleState();
+        copy.baseBetAmount = baseBetAmount;
+        copy.initialBalance = initialBalance;
+        copy.estimatedProfit = estimatedProfit;
+        copy.betColor = betColor;
+        copy.balance = balance;
+        copy.betAmount = betAmount;
+        copy.totalProfit = totalProfit;
+        copy.totalLoss = totalLoss;
+        copy.maxWinStreak = maxWinStreak;
+        copy.currentWinStreak = currentWinStreak;
+        copy.maxLossStreak = maxLossStreak;
+        copy.currentLossStreak = currentLossStreak;
+        copy.targetReached = targetReached;
+        copy.outOfMoney = outOfMoney;
+        copy.roundsPlayed = roundsPlayed;
+        return copy;
+    }
+}
@@ -0,0 +1,44 @@
+package com.test.models;
+
+import com.test.models.enums.BetType;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Gross payout multipliers per bet type, i.e. the amount returned to the player including the stake.
+ */
+@Data
+@Builder
+public class PayoutRules {
+    @Builder.Default
+    private int straightUpMultiplier = 36;
+    @Builder.Default
+    private int evenMoneyMultiplier = 2;
+    @Builder.Default
+    private int dozenColumnMultiplier = 3;
+
+    // French "la partage": half of an even-money bet is returned when the ball lands on a zero
+    private boolean laPartage;
+
+    public static PayoutRules standard() {
+        return PayoutRules.builder().build();
+    }
+
+    public static PayoutRules withLaPartage() {
+        return PayoutRules.builder()
+                .laPartage(true)
+                .build();
+    }
+
+    public int getMultiplier(BetType betType) {
+        return switch (betType) {
+            case NUMBER -> straightUpMultiplier;
+            case COLOR, ODD_EVEN, HIGH_LOW -> evenMoneyMultiplier;
+            case DOZEN, COLUMN -> dozenColumnMultiplier;
+        };
+    }
+
+    public static boolean isEvenMoney(BetType betType) {
+        return betType == BetType.COLOR || betType == BetType.ODD_EVEN || betType == BetType.HIGH_LOW;
+    }
+}
@@ -0,0 +1,113 @@
+package com.test.models;
+
+import com.test.utils.Money;
+import lombok.Data;
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * Statistics of a weighted (importance sampling or splitting) estimation of one scenario.
+ * <p>
+ * Each root simulation contributes the weighted sum over all trajectories it produced. These sums are independent
+ * and their expectation is the quantity of interest, so means and confidence intervals are taken over roots.
+ */
+@Data
+public class RareEventAccumulator {
+    private int count = 0;
+    private long spins = 0;
+
+    private double sumRuin = 0.0;
+    private double sumRuinSq = 0.0;
+    private double sumTarget = 0.0;
+    private double sumRounds = 0.0;
+    private double sumProfit = 0.0;
+    private double sumProfitSq = 0.0;
+    // Weighted sum of squared profits of single trajectories, for the profit standard deviation
+    private double sumTrajectoryProfitSq = 0.0;
+
+    // Weighted sums of the root that is currently being simulated
+    private double rootRuin;
+    private double rootTarget;
+    private double rootRounds;
+    private double rootProfit;
+    private double rootTrajectoryProfitSq;
+
+    public void addTrajectory(MartingaleState state, double weight) {
+        double profit = Money.toMajorUnits(state.getBalance() - state.getInitialBalance());
+
+        if (state.isOutOfMoney()) rootRuin += weight;
+        if (state.isTargetReached()) rootTarget += weight;
+        rootRounds += weight * state.getRoundsPlayed();
+        rootProfit += weight * profit;
+        rootTrajectoryProfitSq += weight * profit * profit;
+    }
+
+    public void completeRoot() {
+        count++;
+        sumRuin += rootRuin;
+        sumRuinSq += rootRuin * rootRuin;
+        sumTarget += rootTarget;
+        sumRounds += rootRounds;
+        sumProfit += rootProfit;
+        sumProfitSq += rootProfit * rootProfit;
+        sumTrajectoryProfitSq += rootTrajectoryProfitSq;
+
+        rootRuin = 0;
+        rootTarget = 0;
+        rootRounds = 0;
+        rootProfit = 0;
+        rootTrajectoryProfitSq = 0;
+    }
+
+    public RareEventAccumulator combine(RareEventAccumulator other) {
+        this.count += other.count;
+        this.spins += other.spins;
+        this.sumRuin += other.sumRuin;
+        this.sumRuinSq += other.sumRuinSq;
+        this.sumTarget += other.sumTarget;
+        this.sumRounds += other.sumRounds;
+        this.sumProfit += other.sumProfit;
+        this.sumProfitSq += other.sumProfitSq;
+        this.sumTrajectoryProfitSq += other.sumTrajectoryProfitSq;
+        return this;
+    }
+
+    public AggregatedMetrics toAggregatedMetrics(long scenarioId) {
+        int n = count;
+
+        double probabilityOfRuin = sumRuin / n;
+        double averageProfit = sumProfit / n;
+        double profitStdDev = Math.sqrt(Math.max(0, sumTrajectoryProfitSq / n - averageProfit * averageProfit));
+
+        // Intervals come from the variance between roots, undefined until there are two roots
+        double probabilityOfRuinMargin = Double.NaN;
+        double marginOfError = Double.NaN;
+        if (n > 1) {
+            double ruinVariance = Math.max(0, (sumRuinSq - sumRuin * sumRuin / n) / (n - 1));
+            probabilityOfRuinMargin = ScenarioAccumulator.Z_95 * Math.sqrt(ruinVariance / n);
+
+            // Calculate 95% confidence interval for mean profit
+            double rootProfitVariance = Math.max(0, (sumProfitSq - sumProfit * sumProfit / n) / (n - 1));
+            TDistribution tDist = new TDistribution(n - 1);
+            double tCritical = tDist.inverseCumulativeProbability(0.975);
+            marginOfError = tCritical * Math.sqrt(rootProfitVariance / n);
+        }
+
+        return AggregatedMetrics.builder()
+                .scenarioId(scenarioId)
+                .wheel(SimulationParameters.getParametersFromScenarioId(scenarioId).getWheel().getDescription())
+                .simulationCount(n)
+                .averageProfit(averageProfit)
+                // Weighted samples do not give a meaningful median
+                .medianProfit(Double.NaN)
+                .profitStdDev(profitStdDev)
+                .probabilityOfRuin(probabilityOfRuin)
+                .probabilityOfRuinCiLower(Math.max(0, probabilityOfRuin - probabilityOfRuinMargin))
+                .probabilityOfRuinCiUpper(Math.min(1, probabilityOfRuin + probabilityOfRuinMargin))
+                .probabilityOfRuinRelativeError(probabilityOfRuin > 0 ? probabilityOfRuinMargin / probabilityOfRuin : Double.NaN)
+                .probabilityOfReachingTarget(sumTarget / n)
+                .averageRoundsPlayed(sumRounds / n)
+                .confidenceIntervalLower(averageProfit - marginOfError)
+                .confidenceIntervalUpper(averageProfit + marginOfError)
+                .build();
+    }
+}
@@ -9,4 +9,13 @@ import lombok.Data;
 public class RouletteNumber {
     private int number;
     private Color color;
+
+    // 00 and 000 are stored as -1 and -2
+    public boolean isZero() {
+        return number <= 0;
+    }
+
+    public String getLabel() {
+        return number < 0 ? "0".repeat(1 - number) : String.valueOf(number);
+    }
 }
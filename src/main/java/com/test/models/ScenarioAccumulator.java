@@ -1,52 +1,92 @@
 package com.test.models;
 
+import com.test.utils.Money;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.commons.math3.distribution.TDistribution;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Running statistics of one scenario.
+ * <p>
+ * There is a single writer, other threads can read a consistent copy through {@link #snapshot()} at any time.
+ * Updates are guarded by a sequence lock: the writer makes the sequence odd while it modifies the fields and
+ * readers retry until they have copied the fields without the sequence changing, so the writer never waits.
+ */
 @Data
 public class ScenarioAccumulator {
     private static final int MAX_SAMPLES = 1000;
+    // Two-sided 95% quantile of the standard normal distribution, also used by RareEventAccumulator
+    static final double Z_95 = 1.959963984540054;
+
+    private static final VarHandle SEQUENCE;
 
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(ScenarioAccumulator.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Profits are in minor units, see Money. Sums are exact, the sum of squares is kept as a 128-bit integer.
     private int count = 0;
-    private double sumProfit = 0.0;
-    private double sumProfitSq = 0.0;
+    private long sumProfit = 0;
+    private long sumProfitSqHigh = 0;
+    private long sumProfitSqLow = 0;
     private int outOfMoneyCount = 0;
     private int targetReachedCount = 0;
-    private double sumRounds = 0.0;
+    private long sumRounds = 0;
 
     private Percentile medianEstimator = new Percentile().withEstimationType(Percentile.EstimationType.R_7);
-    private List<Double> profitSamples = new ArrayList<>();
+    private long[] profitSamples = new long[MAX_SAMPLES];
+    private int sampleCount = 0;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long sequence = 0;
 
     public void add(SimulationResult result) {
-        double profit = result.getProfit();
+        add(result.getProfit(), result.getRoundsPlayed(), result.isOutOfMoney(), result.isTargetReached());
+    }
+
+    public void add(long profit, int roundsPlayed, boolean outOfMoney, boolean targetReached) {
+        beginWrite();
+
         sumProfit += profit;
-        sumProfitSq += profit * profit;
+        addSumProfitSq(Math.multiplyHigh(profit, profit), profit * profit);
         count++;
 
-        sumRounds += result.getRoundsPlayed();
+        sumRounds += roundsPlayed;
 
-        if (result.isOutOfMoney()) outOfMoneyCount++;
-        if (result.isTargetReached()) targetReachedCount++;
+        if (outOfMoney) outOfMoneyCount++;
+        if (targetReached) targetReachedCount++;
 
         // Collect samples for approximate median calculation
-        if (profitSamples.size() < MAX_SAMPLES) {
-            profitSamples.add(profit);
+        if (sampleCount < MAX_SAMPLES) {
+            profitSamples[sampleCount++] = profit;
         } else {
             // Replace existing samples randomly to keep the sample representative
-            int index = new Random().nextInt(MAX_SAMPLES);
-            profitSamples.set(index, profit);
+            int index = ThreadLocalRandom.current().nextInt(MAX_SAMPLES);
+            profitSamples[index] = profit;
         }
+
+        endWrite();
     }
 
     public ScenarioAccumulator combine(ScenarioAccumulator other) {
+        beginWrite();
+
         this.sumProfit += other.sumProfit;
-        this.sumProfitSq += other.sumProfitSq;
+        addSumProfitSq(other.sumProfitSqHigh, other.sumProfitSqLow);
         this.count += other.count;
 
         this.sumRounds += other.sumRounds;
@@ -54,50 +94,130 @@ public class ScenarioAccumulator {
         this.outOfMoneyCount += other.outOfMoneyCount;
         this.targetReachedCount += other.targetReachedCount;
 
-        this.profitSamples.addAll(other.profitSamples);
-        if (this.profitSamples.size() > MAX_SAMPLES) {
+        long[] samples = Arrays.copyOf(this.profitSamples, this.sampleCount + other.sampleCount);
+        System.arraycopy(other.profitSamples, 0, samples, this.sampleCount, other.sampleCount);
+        if (samples.length > MAX_SAMPLES) {
 
             // Reduce sample size back to MAX_SAMPLES
-            Collections.shuffle(this.profitSamples);
-            this.profitSamples = this.profitSamples.subList(0, MAX_SAMPLES);
+            shuffle(samples);
+            samples = Arrays.copyOf(samples, MAX_SAMPLES);
         }
+        this.sampleCount = Math.min(samples.length, MAX_SAMPLES);
+        this.profitSamples = Arrays.copyOf(samples, MAX_SAMPLES);
 
+        endWrite();
         return this;
     }
 
+    /**
+     * Returns a consistent copy of this accumulator. Safe to call from any thread while the writer keeps adding results.
+     */
+    public ScenarioAccumulator snapshot() {
+        ScenarioAccumulator copy = new ScenarioAccumulator();
+        while (true) {
+            long before = (long) SEQUENCE.getAcquire(this);
+            if ((before & 1) == 1) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            copy.count = count;
+            copy.sumProfit = sumProfit;
+            copy.sumProfitSqHigh = sumProfitSqHigh;
+            copy.sumProfitSqLow = sumProfitSqLow;
+            copy.outOfMoneyCount = outOfMoneyCount;
+            copy.targetReachedCount = targetReachedCount;
+            copy.sumRounds = sumRounds;
+            copy.sampleCount = sampleCount;
+            System.arraycopy(profitSamples, 0, copy.profitSamples, 0, MAX_SAMPLES);
+
+            VarHandle.loadLoadFence();
+            if ((long) SEQUENCE.getOpaque(this) == before) {
+                return copy;
+            }
+        }
+    }
+
     public AggregatedMetrics toAggregatedMetrics(long scenarioId) {
         int n = count;
-        double averageProfit = sumProfit / n;
-        double varianceProfit = (sumProfitSq - (sumProfit * sumProfit) / n) / (n - 1);
-        double profitStdDev = Math.sqrt(varianceProfit);
+        // Single division so that exact averages are not distorted by rounding twice
+        double averageProfit = (double) sumProfit / ((long) n * Money.SCALE);
+
+        // n * sum(x^2) - sum(x)^2 is computed exactly, only the final division is rounded
+        BigInteger sumProfitSq = BigInteger.valueOf(sumProfitSqHigh).shiftLeft(64)
+                .add(new BigInteger(Long.toUnsignedString(sumProfitSqLow)));
+        BigInteger sumProfitBig = BigInteger.valueOf(sumProfit);
+        double varianceProfit = sumProfitSq.multiply(BigInteger.valueOf(n)).subtract(sumProfitBig.multiply(sumProfitBig))
+                .doubleValue() / ((double) n * (n - 1));
+        double profitStdDev = Money.toMajorUnits(Math.sqrt(varianceProfit));
 
         double probabilityOfRuin = (double) outOfMoneyCount / n;
+        double probabilityOfRuinMargin = Z_95 * Math.sqrt(probabilityOfRuin * (1 - probabilityOfRuin) / n);
         double probabilityOfReachingTarget = (double) targetReachedCount / n;
-        double averageRoundsPlayed = sumRounds / n;
+        double averageRoundsPlayed = (double) sumRounds / n;
 
         // Approximate median calculation
-        double[] samples = profitSamples.stream().mapToDouble(Double::doubleValue).toArray();
+        double[] samples = new double[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            samples[i] = Money.toMajorUnits(profitSamples[i]);
+        }
         double medianProfit = medianEstimator.evaluate(samples, 50.0);
 
-        // Calculate 95% confidence interval for mean profit
-        double confidenceLevel = 0.95;
-        TDistribution tDist = new TDistribution(n - 1);
-        double tCritical = tDist.inverseCumulativeProbability(1 - (1 - confidenceLevel) / 2);
-        double standardError = profitStdDev / Math.sqrt(n);
-        double marginOfError = tCritical * standardError;
-        double confidenceIntervalLower = averageProfit - marginOfError;
-        double confidenceIntervalUpper = averageProfit + marginOfError;
+        // Calculate 95% confidence interval for mean profit, undefined until there are two results
+        double confidenceIntervalLower = Double.NaN;
+        double confidenceIntervalUpper = Double.NaN;
+        if (n > 1) {
+            double confidenceLevel = 0.95;
+            TDistribution tDist = new TDistribution(n - 1);
+            double tCritical = tDist.inverseCumulativeProbability(1 - (1 - confidenceLevel) / 2);
+            double standardError = profitStdDev / Math.sqrt(n);
+            double marginOfError = tCritical * standardError;
+            confidenceIntervalLower = averageProfit - marginOfError;
+            confidenceIntervalUpper = averageProfit + marginOfError;
+        }
 
         return AggregatedMetrics.builder()
                 .scenarioId(scenarioId)
+                .wheel(SimulationParameters.getParametersFromScenarioId(scenarioId).getWheel().getDescription())
+                .simulationCount(n)
                 .averageProfit(averageProfit)
                 .medianProfit(medianProfit)
                 .profitStdDev(profitStdDev)
                 .probabilityOfRuin(probabilityOfRuin)
+                .probabilityOfRuinCiLower(Math.max(0, probabilityOfRuin - probabilityOfRuinMargin))
+                .probabilityOfRuinCiUpper(Math.min(1, probabilityOfRuin + probabilityOfRuinMargin))
+                .probabilityOfRuinRelativeError(probabilityOfRuin > 0 ? probabilityOfRuinMargin / probabilityOfRuin : Double.NaN)
                 .probabilityOfReachingTarget(probabilityOfReachingTarget)
                 .averageRoundsPlayed(averageRoundsPlayed)
                 .confidenceIntervalLower(confidenceIntervalLower)
                 .confidenceIntervalUpper(confidenceIntervalUpper)
                 .build();
     }
+
+    private void beginWrite() {
+        // Odd sequence tells readers that the fields are being modified
+        SEQUENCE.setOpaque(this, sequence + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        SEQUENCE.setRelease(this, sequence + 1);
+    }
+
+    private void addSumProfitSq(long high, long low) {
+        long sumLow = sumProfitSqLow + low;
+        // Carry when the unsigned addition of the low words overflows
+        sumProfitSqHigh += high + (Long.compareUnsigned(sumLow, sumProfitSqLow) < 0 ? 1 : 0);
+        sumProfitSqLow = sumLow;
+    }
+
+    private static void shuffle(long[] values) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package com.test.models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Scenarios that are equivalent under the invariances of a sweep. Only the representative is simulated, the metrics
+ * of every member are derived from it.
+ */
+@Data
+@Builder
+public class ScenarioGroup {
+    private SimulationParameters representative;
+    private int simulations;
+
+    // Derives the metrics of each member from the metrics of the representative, the identity for the representative
+    private Map<SimulationParameters, UnaryOperator<AggregatedMetrics>> members;
+}
@@ -1,30 +1,44 @@
 package com.test.models;
 
+import com.test.models.enums.WheelType;
+import com.test.utils.Money;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
 public class SimulationParameters {
-    private static final int BASE_BET_AMOUNT_SCALE = 1000;
-
     private double baseBetAmount;
     private int maxRounds;
     private boolean changeBetColorAfterWin;
 
+    @Builder.Default
+    private WheelDefinition wheel = WheelDefinition.standard(WheelType.EUROPEAN);
+
+    public long getBaseBetMinorUnits() {
+        return Money.toMinorUnits(baseBetAmount);
+    }
+
     public static long generateScenarioId(SimulationParameters parameters) {
         // Convert baseBetAmount to an integer to preserve decimal places
-        int baseBetAmountInt = (int) Math.round(parameters.getBaseBetAmount() * BASE_BET_AMOUNT_SCALE);
+        int baseBetAmountInt = (int) parameters.getBaseBetMinorUnits();
 
         int changeBetColorAfterWinInt = parameters.isChangeBetColorAfterWin() ? 1 : 0;
 
+        int wheelTypeInt = parameters.getWheel().getType().ordinal();
+
+        // Biased wheels and non-standard payouts get their own variant number, 0 is the standard wheel of the type
+        int wheelVariantInt = parameters.getWheel().getVariant();
+
         // Pack parameters into a long using bit-shifting
         // Allocate bits:
+        // wheelVariantInt: 10 bits
+        // wheelTypeInt: 2 bits
         // baseBetAmountInt: 20 bits (supports values up to ~1 million when scaled)
         // maxRounds: 30 bits (supports values up to ~1 billion)
         // changeBetColorAfterWinInt: 1 bit
-        // Total bits used: 20 + 30 + 1 = 51 bits (fits within long)
-        return ((long) baseBetAmountInt << 31) | ((long) parameters.getMaxRounds() << 1) | changeBetColorAfterWinInt;
+        // Total bits used: 10 + 2 + 20 + 30 + 1 = 63 bits (fits within long)
+        return ((long) wheelVariantInt << 53) | ((long) wheelTypeInt << 51) | ((long) baseBetAmountInt << 31) | ((long) parameters.getMaxRounds() << 1) | changeBetColorAfterWinInt;
     }
 
     public static SimulationParameters getParametersFromScenarioId(long scenarioId) {
@@ -38,16 +52,23 @@ public class SimulationParameters {
         // Extract maxRounds (next 30 bits)
         int maxRounds = (int) (temp & 0x3FFFFFFFL); // Mask for 30 bits
 
-        // Shift to get baseBetAmountInt
-        int baseBetAmountInt = (int) (temp >> 30);
+        // Extract baseBetAmountInt (next 20 bits)
+        int baseBetAmountInt = (int) ((temp >> 30) & 0xFFFFFL); // Mask for 20 bits
+
+        // Extract wheelTypeInt (next 2 bits)
+        WheelType wheelType = WheelType.values()[(int) ((temp >> 50) & 0b11)];
+
+        // Shift to get wheelVariantInt
+        int wheelVariantInt = (int) (temp >> 52);
 
         // Convert baseBetAmountInt back to double
-        double baseBetAmount = baseBetAmountInt / (double) BASE_BET_AMOUNT_SCALE;
+        double baseBetAmount = Money.toMajorUnits(baseBetAmountInt);
 
         return SimulationParameters.builder()
                 .baseBetAmount(baseBetAmount)
                 .maxRounds(maxRounds)
                 .changeBetColorAfterWin(changeBetColorAfterWin)
+                .wheel(WheelDefinition.fromVariant(wheelType, wheelVariantInt))
                 .build();
     }
 }
@@ -10,17 +10,18 @@ import java.util.List;
 @Data
 @Builder
 public class SimulationResult {
-    private double initialBalance;
-    private double baseBetAmount;
+    // Amounts are in minor units, see Money
+    private long initialBalance;
+    private long baseBetAmount;
 
     private int maxRounds;
 
-    private double estimatedProfit;
+    private long estimatedProfit;
 
-    private double balance;
-    private double profit;
-    private double totalProfit;
-    private double totalLoss;
+    private long balance;
+    private long profit;
+    private long totalProfit;
+    private long totalLoss;
     private int roundsPlayed;
 
     private int maxWinStreak;
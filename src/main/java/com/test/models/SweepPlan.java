@@ -0,0 +1,49 @@
+package com.test.models;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.test.models.SimulationParameters.generateScenarioId;
+
+@Data
+public class SweepPlan {
+    private final List<ScenarioGroup> groups;
+
+    public Map<SimulationParameters, Integer> getSimulationsPerScenario() {
+        Map<SimulationParameters, Integer> simulations = new LinkedHashMap<>();
+        for (ScenarioGroup group : groups) {
+            simulations.put(group.getRepresentative(), group.getSimulations());
+        }
+        return simulations;
+    }
+
+    public int getScenarioCount() {
+        return groups.stream().mapToInt(group -> group.getMembers().size()).sum();
+    }
+
+    /**
+     * Turns the metrics of the simulated representatives into the metrics of every scenario of the sweep.
+     * Groups whose representative has no metrics yet are left out.
+     */
+    public List<AggregatedMetrics> expand(List<AggregatedMetrics> representativeMetrics) {
+        Map<Long, AggregatedMetrics> metricsByScenarioId = representativeMetrics.stream()
+                .collect(Collectors.toMap(AggregatedMetrics::getScenarioId, Function.identity()));
+
+        List<AggregatedMetrics> expanded = new ArrayList<>();
+        for (ScenarioGroup group : groups) {
+            AggregatedMetrics metrics = metricsByScenarioId.get(generateScenarioId(group.getRepresentative()));
+            if (metrics == null) {
+                continue;
+            }
+
+            group.getMembers().values().forEach(derive -> expanded.add(derive.apply(metrics)));
+        }
+        return expanded;
+    }
+}
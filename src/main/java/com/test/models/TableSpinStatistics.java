@@ -0,0 +1,61 @@
+package com.test.models;
+
+import lombok.Data;
+
+import java.util.Arrays;
+
+/**
+ * Pocket counts of a single table, for the whole log and for the window that is currently being filled.
+ */
+@Data
+public class TableSpinStatistics {
+    private final String tableId;
+
+    private final long[] pocketCounts;
+    private final long[] windowPocketCounts;
+    private long spins = 0;
+    private long windowSpins = 0;
+
+    private int windowsTested = 0;
+    private int windowsFlagged = 0;
+    private double minWindowPValue = 1.0;
+
+    public TableSpinStatistics(String tableId, int pockets) {
+        this.tableId = tableId;
+        this.pocketCounts = new long[pockets];
+        this.windowPocketCounts = new long[pockets];
+    }
+
+    public void add(int pocketIndex) {
+        pocketCounts[pocketIndex]++;
+        windowPocketCounts[pocketIndex]++;
+        spins++;
+        windowSpins++;
+    }
+
+    public void closeWindow(double pValue, boolean flagged) {
+        windowsTested++;
+        if (flagged) windowsFlagged++;
+        minWindowPValue = Math.min(minWindowPValue, pValue);
+
+        Arrays.fill(windowPocketCounts, 0);
+        windowSpins = 0;
+    }
+
+    /**
+     * Merges the counts of another log of the same table. Windows are not carried across logs, the open window of
+     * the other log is dropped.
+     */
+    public TableSpinStatistics combine(TableSpinStatistics other) {
+        for (int i = 0; i < pocketCounts.length; i++) {
+            this.pocketCounts[i] += other.pocketCounts[i];
+        }
+        this.spins += other.spins;
+
+        this.windowsTested += other.windowsTested;
+        this.windowsFlagged += other.windowsFlagged;
+        this.minWindowPValue = Math.min(this.minWindowPValue, other.minWindowPValue);
+
+        return this;
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@Builder
+public class WheelBiasReport {
+    private String tableId;
+    private long spins;
+
+    // Goodness of fit of the pocket counts against the wheel model
+    private double chiSquare;
+    private double chiSquarePValue;
+    private double gStatistic;
+    private double gTestPValue;
+
+    // Pocket furthest from its expected count, p-value is Bonferroni corrected
+    private String mostBiasedPocket;
+    private double mostBiasedPocketZ;
+    private double mostBiasedPocketPValue;
+
+    // Goodness of fit of neighbouring pockets grouped into sectors
+    private double sectorChiSquarePValue;
+    private double sectorGTestPValue;
+    private String hottestSectorStart;
+    private double hottestSectorZ;
+
+    private int windowsTested;
+    private int windowsFlagged;
+    private double minWindowPValue;
+
+    // Bet with the highest expected return per unit staked, and the lower bound of that return
+    private String bestBet;
+    private double bestBetExpectedReturn;
+    private double bestBetExpectedReturnLower;
+    private boolean positiveExpectation;
+
+    public static List<String> getFieldNames() {
+        return Arrays.stream(WheelBiasReport.class.getDeclaredFields())
+                .map(Field::getName)
+                .toList();
+    }
+}
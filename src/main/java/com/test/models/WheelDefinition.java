@@ -0,0 +1,236 @@
+package com.test.models;
+
+import com.test.models.enums.Color;
+import com.test.models.enums.WheelType;
+import com.test.utils.AliasSampler;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.test.models.enums.Color.BLACK;
+import static com.test.models.enums.Color.RED;
+
+/**
+ * Pockets of a wheel together with the probability of the ball landing in each of them and the payouts of the table.
+ * <p>
+ * Instances are immutable and can be shared between threads, the random generator is passed to {@link #spin(Random)}.
+ */
+@Getter
+@EqualsAndHashCode(exclude = {"sampler", "totalWeight", "variant"})
+public class WheelDefinition {
+    private static final List<Integer> redNumbers = Arrays.asList(1, 3, 5, 7, 9, 12, 14, 16, 18, 19, 21, 23, 25, 27, 30, 32, 34, 36);
+    private static final List<Integer> blackNumbers = Arrays.asList(2, 4, 6, 8, 10, 11, 13, 15, 17, 20, 22, 24, 26, 28, 29, 31, 33, 35);
+
+    // Pocket numbers in the order they appear around the wheel, 00 is -1
+    private static final int[] europeanLayout = {0, 32, 15, 19, 4, 21, 2, 25, 17, 34, 6, 27, 13, 36, 11, 30, 8, 23, 10,
+            5, 24, 16, 33, 1, 20, 14, 31, 9, 22, 18, 29, 7, 28, 12, 35, 3, 26};
+    private static final int[] americanLayout = {0, 28, 9, 26, 30, 11, 7, 20, 32, 17, 5, 22, 34, 15, 3, 24, 36, 13, 1,
+            -1, 27, 10, 25, 29, 12, 8, 19, 31, 18, 6, 21, 33, 16, 4, 23, 35, 14, 2};
+
+    public static final int MAX_VARIANTS = (1 << 10) - 1;
+
+    // Wheels that differ from the standard wheel of their type, numbered from 1 in the order they are first used
+    private static final List<WheelDefinition> variants = new ArrayList<>();
+
+    private final WheelType type;
+    private final List<RouletteNumber> pockets;
+    private final PayoutRules payoutRules;
+
+    // Relative weights, not normalized
+    private final double[] pocketWeights;
+    private final double totalWeight;
+
+    @Getter(AccessLevel.NONE)
+    private final AliasSampler sampler;
+
+    // Number of this wheel among the variants, -1 until it is first asked for
+    private volatile int variant = -1;
+
+    private WheelDefinition(WheelType type, List<RouletteNumber> pockets, double[] pocketWeights, PayoutRules payoutRules) {
+        if (pockets.size() != pocketWeights.length) {
+            throw new IllegalArgumentException("Expected " + pockets.size() + " pocket weights, got " + pocketWeights.length);
+        }
+
+        this.type = type;
+        this.pockets = pockets;
+        this.pocketWeights = pocketWeights.clone();
+        this.payoutRules = payoutRules;
+        this.totalWeight = Arrays.stream(pocketWeights).sum();
+        this.sampler = new AliasSampler(pocketWeights);
+    }
+
+    /**
+     * Creates a fair wheel with the standard payouts. The zero pockets come first: 0, then 00 and 000 where present.
+     */
+    public static WheelDefinition standard(WheelType type) {
+        List<RouletteNumber> pockets = new ArrayList<>();
+        for (int i = 0; i < type.getZeroPockets(); i++) {
+            pockets.add(RouletteNumber.builder()
+                    .number(-i)
+                    .build());
+        }
+
+        for (int i = 1; i <= 36; i++) {
+            Color color;
+            if (redNumbers.contains(i)) {
+                color = RED;
+            } else if (blackNumbers.contains(i)) {
+                color = BLACK;
+            } else {
+                throw new IllegalStateException("Invalid number: " + i);
+            }
+
+            pockets.add(RouletteNumber.builder()
+                    .number(i)
+                    .color(color)
+                    .build());
+        }
+
+        double[] weights = new double[pockets.size()];
+        Arrays.fill(weights, 1);
+
+        return new WheelDefinition(type, Collections.unmodifiableList(pockets), weights, PayoutRules.standard());
+    }
+
+    /**
+     * Returns a copy of this wheel where the ball lands in each pocket proportionally to the given weights,
+     * e.g. pocket frequencies measured on a physically biased wheel. Weights are in the order of {@link #getPockets()}.
+     */
+    public WheelDefinition withPocketWeights(double[] pocketWeights) {
+        return new WheelDefinition(type, pockets, pocketWeights, payoutRules);
+    }
+
+    public WheelDefinition withPayoutRules(PayoutRules payoutRules) {
+        return new WheelDefinition(type, pockets, pocketWeights, payoutRules);
+    }
+
+    public RouletteNumber spin(Random random) {
+        return pockets.get(sampler.sample(random));
+    }
+
+    public int spinIndex(Random random) {
+        return sampler.sample(random);
+    }
+
+    /**
+     * Returns the pocket indices in the order they appear around the wheel, or null when the layout is not known.
+     */
+    public int[] getLayout() {
+        int[] layout = switch (type) {
+            case EUROPEAN -> europeanLayout;
+            case AMERICAN -> americanLayout;
+            case TRIPLE_ZERO -> null;
+        };
+        if (layout == null) {
+            return null;
+        }
+
+        int[] pocketIndices = new int[layout.length];
+        for (int i = 0; i < layout.length; i++) {
+            pocketIndices[i] = indexOf(layout[i]);
+        }
+        return pocketIndices;
+    }
+
+    /**
+     * Returns the index of the pocket with the given number (00 is -1, 000 is -2), or -1 if the wheel has no such pocket.
+     */
+    public int indexOf(int number) {
+        for (int i = 0; i < pockets.size(); i++) {
+            if (pockets.get(i).getNumber() == number) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns 0 for the standard wheel of this type and a number unique to this wheel otherwise, so that scenarios on
+     * different wheels get different ids. Variants are numbered per process, in the order they are first used, callers
+     * that run scenarios concurrently register the wheels in scenario order first so the numbers are reproducible.
+     * Outside the process a wheel is identified by {@link #getDescription()}.
+     */
+    public int getVariant() {
+        int value = variant;
+        if (value < 0) {
+            value = registerVariant(this);
+            variant = value;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the wheel with the given type and variant number, the inverse of {@link #getVariant()}.
+     */
+    public static synchronized WheelDefinition fromVariant(WheelType type, int variant) {
+        if (variant == 0) {
+            return standard(type);
+        }
+        if (variant > variants.size()) {
+            throw new IllegalArgumentException("Wheel variant " + variant + " is not known in this process");
+        }
+        return variants.get(variant - 1);
+    }
+
+    /**
+     * Describes the wheel for reports: the type, payouts that differ from the standard ones and the pocket weights
+     * of a biased wheel, e.g. {@code EUROPEAN la partage weights 1.0 1.2 ...}.
+     */
+    public String getDescription() {
+        StringBuilder description = new StringBuilder(type.name());
+
+        PayoutRules standardRules = PayoutRules.standard();
+        if (payoutRules.getStraightUpMultiplier() != standardRules.getStraightUpMultiplier()
+                || payoutRules.getEvenMoneyMultiplier() != standardRules.getEvenMoneyMultiplier()
+                || payoutRules.getDozenColumnMultiplier() != standardRules.getDozenColumnMultiplier()) {
+            description.append(" payouts ").append(payoutRules.getStraightUpMultiplier())
+                    .append('/').append(payoutRules.getEvenMoneyMultiplier())
+                    .append('/').append(payoutRules.getDozenColumnMultiplier());
+        }
+        if (payoutRules.isLaPartage()) {
+            description.append(" la partage");
+        }
+
+        if (Arrays.stream(pocketWeights).distinct().count() > 1) {
+            description.append(" weights");
+            for (double weight : pocketWeights) {
+                description.append(' ').append(weight);
+            }
+        }
+        return description.toString();
+    }
+
+    private static synchronized int registerVariant(WheelDefinition wheel) {
+        if (wheel.equals(standard(wheel.type))) {
+            return 0;
+        }
+
+        int index = variants.indexOf(wheel);
+        if (index < 0) {
+            if (variants.size() == MAX_VARIANTS) {
+                throw new IllegalStateException("More than " + MAX_VARIANTS + " distinct wheels in use");
+            }
+            variants.add(wheel);
+            index = variants.size() - 1;
+        }
+        return index + 1;
+    }
+
+    public int size() {
+        return pockets.size();
+    }
+
+    public double getPocketProbability(int index) {
+        return pocketWeights[index] / totalWeight;
+    }
+
+    public double[] getPocketWeights() {
+        return pocketWeights.clone();
+    }
+}
@@ -7,6 +7,8 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public enum Number implements BetOption {
+    TRIPLE_ZERO(-2),
+    DOUBLE_ZERO(-1),
     ZERO(0),
     ONE(1),
     TWO(2),
@@ -0,0 +1,8 @@
+package com.test.models.enums;
+
+public enum RareEventMethod {
+    // Exponential tilting of the spin distribution towards losses, weighted by the likelihood ratio
+    IMPORTANCE_SAMPLING,
+    // Splitting of trajectories whose loss streak gets deeper, with Russian roulette when the streak ends
+    SPLITTING
+}
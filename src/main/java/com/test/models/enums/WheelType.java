@@ -0,0 +1,14 @@
+package com.test.models.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum WheelType {
+    EUROPEAN(1),
+    AMERICAN(2),
+    TRIPLE_ZERO(3);
+
+    private final int zeroPockets;
+}
@@ -0,0 +1,43 @@
+package com.test.services;
+
+import com.test.services.abstracts.SimulationResultConsumer;
+
+/**
+ * Optional pipeline consumer that reports how many results went through the pipeline and how fast.
+ */
+public class PipelineMonitor implements SimulationResultConsumer {
+    private static final long REPORT_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final long startTime = System.nanoTime();
+    private long lastReportTime = startTime;
+    private long resultCount = 0;
+
+    @Override
+    public void accept(SimulationResultBatch batch) {
+        resultCount += batch.size();
+
+        long now = System.nanoTime();
+        if (now - lastReportTime >= REPORT_INTERVAL_NANOS) {
+            lastReportTime = now;
+            report(now);
+        }
+    }
+
+    @Override
+    public void accept(long scenarioId, long initialBalance, long baseBetAmount, int maxRounds, long estimatedProfit,
+                       long balance, long totalProfit, long totalLoss, int roundsPlayed, int maxWinStreak, int maxLossStreak,
+                       boolean targetReached, boolean outOfMoney, boolean changeBetColorAfterWin) {
+        resultCount++;
+    }
+
+    @Override
+    public void complete() {
+        report(System.nanoTime());
+    }
+
+    private void report(long now) {
+        double elapsedSeconds = (now - startTime) / 1e9;
+        System.out.printf("Processed %d simulations in %.1f s (%.0f simulations/s)%n",
+                resultCount, elapsedSeconds, resultCount / Math.max(elapsedSeconds, 1e-9));
+    }
+}
@@ -0,0 +1,199 @@
+package com.test.services;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.MartingaleState;
+import com.test.models.RareEventAccumulator;
+import com.test.models.SimulationParameters;
+import com.test.models.WheelDefinition;
+import com.test.models.enums.BetType;
+import com.test.models.enums.Color;
+import com.test.models.enums.RareEventMethod;
+import com.test.utils.Money;
+import lombok.Builder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.test.models.SimulationParameters.generateScenarioId;
+
+/**
+ * Estimates the probability of ruin of a martingale scenario with far fewer spins than plain Monte Carlo.
+ * <p>
+ * Both methods play the same rounds as {@link SimulationService} and weight every finished trajectory so that
+ * weighted averages stay unbiased:
+ * <ul>
+ *     <li>{@link RareEventMethod#IMPORTANCE_SAMPLING} draws spins from a wheel tilted towards losing pockets while
+ *     a loss streak is under way and weights each trajectory by the likelihood ratio of its spins.</li>
+ *     <li>{@link RareEventMethod#SPLITTING} splits a trajectory into {@code splittingFactor} copies each time its
+ *     loss streak reaches the next level, dividing the weight between them. When the streak ends a copy survives
+ *     with the probability of its weight and continues with weight 1 (Russian roulette).</li>
+ * </ul>
+ */
+@Builder
+public class RareEventSimulationService {
+    private final SimulationParameters parameters;
+
+    @Builder.Default
+    private final RareEventMethod method = RareEventMethod.SPLITTING;
+
+    // Probability of losing a spin under the tilted wheel used for importance sampling
+    @Builder.Default
+    private final double tiltedLossProbability = 0.7;
+
+    // Spins are only tilted once the loss streak is this deep, tilting every spin degrades on long horizons
+    @Builder.Default
+    private final int tiltFromLossStreak = 4;
+
+    // Loss streak depths at which trajectories are split
+    @Builder.Default
+    private final int[] splittingLevels = {4, 6, 8};
+
+    @Builder.Default
+    private final int splittingFactor = 4;
+
+    public AggregatedMetrics estimate(int rootSimulations) {
+        return run(rootSimulations).toAggregatedMetrics(generateScenarioId(parameters));
+    }
+
+    public RareEventAccumulator run(int rootSimulations) {
+        SimulationService simulationService = SimulationService.builder()
+                .parameters(parameters)
+                .build();
+        RouletteService rouletteService = simulationService.createRouletteService();
+
+        RareEventAccumulator accumulator = new RareEventAccumulator();
+        if (method == RareEventMethod.IMPORTANCE_SAMPLING) {
+            TiltedWheel tiltedWheel = new TiltedWheel(rouletteService);
+            for (int i = 0; i < rootSimulations; i++) {
+                runImportanceSampling(simulationService, rouletteService, tiltedWheel, accumulator);
+                accumulator.completeRoot();
+            }
+        } else {
+            for (int i = 0; i < rootSimulations; i++) {
+                runSplitting(simulationService, rouletteService, accumulator);
+                accumulator.completeRoot();
+            }
+        }
+
+        return accumulator;
+    }
+
+    private void runImportanceSampling(SimulationService simulationService, RouletteService rouletteService,
+                                       TiltedWheel tiltedWheel, RareEventAccumulator accumulator) {
+        Random random = ThreadLocalRandom.current();
+        WheelDefinition wheel = parameters.getWheel();
+
+        MartingaleState state = simulationService.startSimulation();
+        double likelihoodRatio = 1;
+        long spins = 0;
+        while (state.canPlaceBet()) {
+            int pocket;
+            if (state.getCurrentLossStreak() >= tiltFromLossStreak) {
+                int color = state.getBetColor().ordinal();
+                pocket = tiltedWheel.wheels[color].spinIndex(random);
+                likelihoodRatio *= tiltedWheel.likelihoodRatios[color][pocket];
+            } else {
+                pocket = wheel.spinIndex(random);
+            }
+            spins++;
+
+            if (!simulationService.playSpin(state, rouletteService, wheel.getPockets().get(pocket))) {
+                break;
+            }
+        }
+
+        accumulator.setSpins(accumulator.getSpins() + spins);
+        accumulator.addTrajectory(state, likelihoodRatio);
+    }
+
+    private void runSplitting(SimulationService simulationService, RouletteService rouletteService,
+                              RareEventAccumulator accumulator) {
+        Random random = ThreadLocalRandom.current();
+
+        // Trajectories still to be played and the number of levels each of them has crossed
+        Deque<MartingaleState> states = new ArrayDeque<>();
+        Deque<Integer> levels = new ArrayDeque<>();
+        states.push(simulationService.startSimulation());
+        levels.push(0);
+
+        long spins = 0;
+        while (!states.isEmpty()) {
+            MartingaleState state = states.pop();
+            int level = levels.pop();
+            boolean alive = true;
+
+            while (state.canPlaceBet()) {
+                boolean playing = simulationService.playSpin(state, rouletteService, rouletteService.spinWheel());
+                spins++;
+
+                if (level > 0 && state.getCurrentLossStreak() == 0) {
+                    // The streak has ended, keep the copy with the probability of its weight
+                    if (random.nextDouble() >= weight(level)) {
+                        alive = false;
+                        break;
+                    }
+                    level = 0;
+                }
+
+                if (!playing) {
+                    break;
+                }
+
+                if (level < splittingLevels.length && state.getCurrentLossStreak() == splittingLevels[level]) {
+                    level++;
+                    for (int i = 1; i < splittingFactor; i++) {
+                        states.push(state.copy());
+                        levels.push(level);
+                    }
+                }
+            }
+
+            if (alive) {
+                accumulator.addTrajectory(state, weight(level));
+            }
+        }
+
+        accumulator.setSpins(accumulator.getSpins() + spins);
+    }
+
+    private double weight(int level) {
+        return Math.pow(splittingFactor, -level);
+    }
+
+    /**
+     * Wheels tilted towards the pockets that lose a bet on each color, with the likelihood ratio of every pocket.
+     */
+    private class TiltedWheel {
+        private final WheelDefinition[] wheels = new WheelDefinition[Color.values().length];
+        private final double[][] likelihoodRatios = new double[Color.values().length][];
+
+        TiltedWheel(RouletteService rouletteService) {
+            WheelDefinition wheel = parameters.getWheel();
+
+            for (Color color : Color.values()) {
+                boolean[] losing = new boolean[wheel.size()];
+                double lossProbability = 0;
+                for (int i = 0; i < wheel.size(); i++) {
+                    // A zero under la partage returns half of the stake and still loses
+                    losing[i] = rouletteService.evaluateBet(BetType.COLOR, color, Money.SCALE, wheel.getPockets().get(i)) <= Money.SCALE;
+                    if (losing[i]) lossProbability += wheel.getPocketProbability(i);
+                }
+
+                double[] weights = new double[wheel.size()];
+                double[] ratios = new double[wheel.size()];
+                for (int i = 0; i < wheel.size(); i++) {
+                    double factor = losing[i]
+                            ? tiltedLossProbability / lossProbability
+                            : (1 - tiltedLossProbability) / (1 - lossProbability);
+                    weights[i] = wheel.getPocketProbability(i) * factor;
+                    ratios[i] = 1 / factor;
+                }
+
+                wheels[color.ordinal()] = wheel.withPocketWeights(weights);
+                likelihoodRatios[color.ordinal()] = ratios;
+            }
+        }
+    }
+}
@@ -2,152 +2,168 @@ package com.test.services;
 
 import com.test.models.Bet;
 import com.test.models.enums.*;
+import com.test.models.PayoutRules;
 import com.test.models.RouletteNumber;
+import com.test.models.WheelDefinition;
+import com.test.models.abstracts.BetOption;
 import com.test.models.enums.Number;
+import com.test.utils.Money;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.IntStream;
-
-import static com.test.models.enums.Color.*;
 
 @Slf4j
 @Builder
 public class RouletteService {
-    private static final List<Integer> redNumbers = Arrays.asList(1, 3, 5, 7, 9, 12, 14, 16, 18, 19, 21, 23, 25, 27, 30, 32, 34, 36);
-    private static final List<Integer> blackNumbers = Arrays.asList(2, 4, 6, 8, 10, 11, 13, 15, 17, 20, 22, 24, 26, 28, 29, 31, 33, 35);
-
-    private final List<RouletteNumber> wheel;
+    private final WheelDefinition wheel;
     private final Random random;
 
-    public static List<RouletteNumber> createWheel() {
-        return IntStream.rangeClosed(0, 36)
-                .mapToObj(i -> {
-                    Color color;
-                    if (i == 0) {
-                        color = null;
-                    } else if (redNumbers.contains(i)) {
-                        color = RED;
-                    } else if (blackNumbers.contains(i)) {
-                        color = BLACK;
-                    } else {
-                        throw new IllegalStateException("Invalid number: " + i);
-                    }
-
-                    return RouletteNumber.builder()
-                            .number(i)
-                            .color(color)
-                            .build();
-                })
-                .toList();
+    // When set, rounds played through playRound are recorded in the journal instead of being logged
+    private final SpinJournal journal;
+
+    public static WheelDefinition createWheel() {
+        return createWheel(WheelType.EUROPEAN);
+    }
+
+    public static WheelDefinition createWheel(WheelType type) {
+        return WheelDefinition.standard(type);
     }
 
     public RouletteNumber spinWheel() {
-        int index = random.nextInt(wheel.size());
-        return wheel.get(index);
+        return wheel.spin(random);
+    }
+
+    public long evaluateBet(Bet bet, RouletteNumber result) {
+        return evaluateBet(bet.getType(), bet.getBet(), bet.getAmount(), result);
     }
 
-    public double evaluateBet(Bet bet, RouletteNumber result) {
-        switch (bet.getType()) {
+    /**
+     * Returns the payout of a bet of the given amount in minor units, including the stake, or 0 if the bet loses.
+     */
+    public long evaluateBet(BetType type, BetOption option, long amount, RouletteNumber result) {
+        PayoutRules payoutRules = wheel.getPayoutRules();
+        int multiplier = payoutRules.getMultiplier(type);
+
+        switch (type) {
             case NUMBER: {
-                if (!(bet.getBet() instanceof Number betNumber)) {
-                    throw new IllegalArgumentException("Invalid bet: " + bet.getBet());
+                if (!(option instanceof Number betNumber)) {
+                    throw new IllegalArgumentException("Invalid bet: " + option);
                 }
                 if (betNumber.getValue() == result.getNumber()) {
-                    return bet.getAmount() * 36;
+                    return amount * multiplier;
                 }
                 break;
             }
             case COLOR: {
-                if (!(bet.getBet() instanceof Color betColor)) {
-                    throw new IllegalArgumentException("Invalid bet: " + bet.getBet());
+                if (!(option instanceof Color betColor)) {
+                    throw new IllegalArgumentException("Invalid bet: " + option);
                 }
                 if (betColor == result.getColor()) {
-                    return bet.getAmount() * 2;
+                    return amount * multiplier;
                 }
                 break;
             }
             case ODD_EVEN: {
-                if (result.getNumber() == 0) {
+                if (result.isZero()) {
                     break;
                 }
 
-                if (!(bet.getBet() instanceof OddEven betValue)) {
-                    throw new IllegalArgumentException("Invalid bet: " + bet.getBet());
+                if (!(option instanceof OddEven betValue)) {
+                    throw new IllegalArgumentException("Invalid bet: " + option);
                 }
 
                 boolean isResultEven = result.getNumber() % 2 == 0;
                 if ((betValue == OddEven.EVEN && isResultEven) || (betValue == OddEven.ODD && !isResultEven)) {
-                    return bet.getAmount() * 2;
+                    return amount * multiplier;
                 }
 
                 break;
             }
             case HIGH_LOW: {
-                if (result.getNumber() == 0) {
+                if (result.isZero()) {
                     break;
                 }
 
-                if (!(bet.getBet() instanceof HighLow betValue)) {
-                    throw new IllegalArgumentException("Invalid bet: " + bet.getBet());
+                if (!(option instanceof HighLow betValue)) {
+                    throw new IllegalArgumentException("Invalid bet: " + option);
                 }
 
                 boolean isResultHigh = result.getNumber() >= 19 && result.getNumber() <= 36;
                 if ((betValue == HighLow.HIGH && isResultHigh) || (betValue == HighLow.LOW && !isResultHigh)) {
-                    return bet.getAmount() * 2;
+                    return amount * multiplier;
                 }
 
                 break;
             }
             case DOZEN: {
-                if (result.getNumber() == 0) {
+                if (result.isZero()) {
                     break;
                 }
 
-                if (!(bet.getBet() instanceof Dozen betDozen)) {
-                    throw new IllegalArgumentException("Invalid bet: " + bet.getBet());
+                if (!(option instanceof Dozen betDozen)) {
+                    throw new IllegalArgumentException("Invalid bet: " + option);
                 }
 
                 int resultDozen = (result.getNumber() - 1) / 12 + 1;
                 if (betDozen.getDozenNumber() == resultDozen) {
-                    return bet.getAmount() * 3;
+                    return amount * multiplier;
                 }
 
                 break;
             }
             case COLUMN: {
-                if (!(bet.getBet() instanceof Column betColumn)) {
-                    throw new IllegalArgumentException("Invalid bet: " + bet.getBet());
+                if (result.isZero()) {
+                    break;
+                }
+
+                if (!(option instanceof Column betColumn)) {
+                    throw new IllegalArgumentException("Invalid bet: " + option);
                 }
 
                 int resultColumn = ((result.getNumber() - 1) % 3) + 1;
                 if (betColumn.getColumnNumber() == resultColumn) {
-                    return bet.getAmount() * 3;
+                    return amount * multiplier;
                 }
 
                 break;
             }
             default:
-                throw new IllegalArgumentException("Invalid bet type: " + bet.getType());
+                throw new IllegalArgumentException("Invalid bet type: " + type);
+        }
+
+        // Half a minor unit of an odd amount is kept by the house
+        if (result.isZero() && payoutRules.isLaPartage() && PayoutRules.isEvenMoney(type)) {
+            return amount / 2;
         }
 
         return 0;
     }
 
     public void playRound(List<Bet> bets) {
-        RouletteNumber result = spinWheel();
+        int pocketIndex = wheel.spinIndex(random);
+        RouletteNumber result = wheel.getPockets().get(pocketIndex);
+
+        if (journal != null) {
+            journal.writeSpin(pocketIndex);
+            for (Bet bet : bets) {
+                journal.writeBet(bet.getType(), bet.getBet(), bet.getAmount(), evaluateBet(bet, result));
+            }
+            journal.endRound();
+            return;
+        }
 
-        log.info("The ball landed on {} {}", result.getNumber(), result.getColor() != null ? result.getColor() : "");
+        log.info("The ball landed on {} {}", result.getLabel(), result.getColor() != null ? result.getColor() : "");
 
-        double totalPayout = 0;
+        long totalPayout = 0;
         for (Bet bet : bets) {
-            double payout = evaluateBet(bet, result);
+            long payout = evaluateBet(bet, result);
 
-            if (payout > 0) {
-                log.info("Bet on {} wins! Payout: {}", bet.getBet(), payout);
+            if (payout > bet.getAmount()) {
+                log.info("Bet on {} wins! Payout: {}", bet.getBet(), Money.format(payout));
+            } else if (payout > 0) {
+                log.info("Bet on {} loses, {} returned.", bet.getBet(), Money.format(payout));
             } else {
                 log.info("Bet on {} loses.", bet.getBet());
             }
@@ -155,6 +171,6 @@ public class RouletteService {
             totalPayout += payout;
         }
 
-        log.info("Total payout: {}", totalPayout);
+        log.info("Total payout: {}", Money.format(totalPayout));
     }
 }
@@ -0,0 +1,63 @@
+package com.test.services;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.SimulationParameters;
+import com.test.models.WheelDefinition;
+import com.test.services.abstracts.ScenarioInvariance;
+import lombok.Value;
+
+import static com.test.models.SimulationParameters.generateScenarioId;
+import static com.test.utils.RouletteUtils.calculateInitialBalance;
+import static com.test.utils.RouletteUtils.estimatedProfit;
+
+/**
+ * Scenarios that only differ in the base bet are the same game measured in a different unit: the initial balance is
+ * 1024 base bets and every later bet and payout is a multiple of the base bet. Their profits are exact multiples of
+ * each other, probabilities and round counts are identical.
+ * <p>
+ * Two things can break this and are part of the key: the target is rounded to minor units, so it must fall on the
+ * same whole number of base bets, and la partage returns half a bet, which is not a multiple of the base bet.
+ */
+public class ScaleInvariance implements ScenarioInvariance {
+
+    @Value
+    private static class ScaleKey {
+        WheelDefinition wheel;
+        int maxRounds;
+        boolean changeBetColorAfterWin;
+        long targetInBaseBets;
+    }
+
+    @Override
+    public Object equivalenceKey(SimulationParameters parameters) {
+        if (parameters.getWheel().getPayoutRules().isLaPartage()) {
+            return null;
+        }
+
+        long baseBetAmount = parameters.getBaseBetMinorUnits();
+        if (baseBetAmount <= 0) {
+            return null;
+        }
+
+        // Same computation as SimulationService, the target is reached once the balance in base bets reaches this
+        long initialBalance = calculateInitialBalance(baseBetAmount);
+        long estimatedProfit = Math.round(estimatedProfit(initialBalance, baseBetAmount, parameters.getMaxRounds()));
+        long targetInBaseBets = Math.ceilDiv(estimatedProfit, baseBetAmount);
+
+        return new ScaleKey(parameters.getWheel(), parameters.getMaxRounds(), parameters.isChangeBetColorAfterWin(), targetInBaseBets);
+    }
+
+    @Override
+    public AggregatedMetrics derive(AggregatedMetrics representativeMetrics, SimulationParameters representative, SimulationParameters target) {
+        double factor = (double) target.getBaseBetMinorUnits() / representative.getBaseBetMinorUnits();
+
+        return representativeMetrics.toBuilder()
+                .scenarioId(generateScenarioId(target))
+                .averageProfit(representativeMetrics.getAverageProfit() * factor)
+                .medianProfit(representativeMetrics.getMedianProfit() * factor)
+                .profitStdDev(representativeMetrics.getProfitStdDev() * factor)
+                .confidenceIntervalLower(representativeMetrics.getConfidenceIntervalLower() * factor)
+                .confidenceIntervalUpper(representativeMetrics.getConfidenceIntervalUpper() * factor)
+                .build();
+    }
+}
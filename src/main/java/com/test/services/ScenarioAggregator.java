@@ -0,0 +1,141 @@
+package com.test.services;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.ScenarioAccumulator;
+import com.test.models.SweepPlan;
+import com.test.services.abstracts.SimulationResultConsumer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline consumer that accumulates results per scenario and writes the aggregated report once all results are in.
+ * <p>
+ * With a report interval the report is also rewritten periodically from snapshots of the accumulators while the
+ * simulation is still running, so a long sweep can be watched and stopped early.
+ */
+public class ScenarioAggregator implements SimulationResultConsumer {
+    private final SimulationResultAnalyzer analyzer;
+
+    private final Map<Long, ScenarioAccumulator> accumulatorMap = new ConcurrentHashMap<>();
+
+    // Batches hold results of one scenario, remembering the last accumulator avoids boxing the id for every result
+    private long lastScenarioId;
+    private ScenarioAccumulator lastAccumulator;
+
+    // Interval between intermediate reports, null for the final report only
+    private final Duration reportInterval;
+    private ScheduledExecutorService reportScheduler;
+
+    // Derives the scenarios that are not simulated from their representatives, null when every scenario is simulated
+    private final SweepPlan plan;
+
+    public ScenarioAggregator(SimulationResultAnalyzer analyzer) {
+        this(analyzer, null, null);
+    }
+
+    public ScenarioAggregator(SimulationResultAnalyzer analyzer, Duration reportInterval) {
+        this(analyzer, reportInterval, null);
+    }
+
+    public ScenarioAggregator(SimulationResultAnalyzer analyzer, Duration reportInterval, SweepPlan plan) {
+        this.analyzer = analyzer;
+        this.reportInterval = reportInterval;
+        this.plan = plan;
+    }
+
+    @Override
+    public void accept(SimulationResultBatch batch) {
+        // Intermediate reports start with the first results, not when the consumer is created
+        if (reportInterval != null && reportScheduler == null) {
+            startReportScheduler();
+        }
+
+        SimulationResultConsumer.super.accept(batch);
+    }
+
+    @Override
+    public void accept(long scenarioId, long initialBalance, long baseBetAmount, int maxRounds, long estimatedProfit,
+                       long balance, long totalProfit, long totalLoss, int roundsPlayed, int maxWinStreak, int maxLossStreak,
+                       boolean targetReached, boolean outOfMoney, boolean changeBetColorAfterWin) {
+        if (lastAccumulator == null || scenarioId != lastScenarioId) {
+            lastAccumulator = accumulatorMap.computeIfAbsent(scenarioId, k -> new ScenarioAccumulator());
+            lastScenarioId = scenarioId;
+        }
+
+        lastAccumulator.add(balance - initialBalance, roundsPlayed, outOfMoney, targetReached);
+    }
+
+    @Override
+    public void complete() {
+        stopReportScheduler();
+
+        List<AggregatedMetrics> aggregatedMetrics = accumulatorMap.entrySet().stream()
+                .map(entry -> entry.getValue().toAggregatedMetrics(entry.getKey()))
+                .toList();
+
+        analyzer.writeAggregatedReport(expand(aggregatedMetrics));
+    }
+
+    @Override
+    public void abort() {
+        stopReportScheduler();
+    }
+
+    /**
+     * Returns the metrics of every scenario with results as they are right now. Safe to call while results are being added.
+     */
+    public List<AggregatedMetrics> snapshot() {
+        return expand(accumulatorMap.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().snapshot()))
+                // An accumulator may have been created without any result added yet
+                .filter(entry -> entry.getValue().getCount() > 0)
+                .map(entry -> entry.getValue().toAggregatedMetrics(entry.getKey()))
+                .toList());
+    }
+
+    private List<AggregatedMetrics> expand(List<AggregatedMetrics> aggregatedMetrics) {
+        return plan != null ? plan.expand(aggregatedMetrics) : aggregatedMetrics;
+    }
+
+    private void startReportScheduler() {
+        reportScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progressive-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalMillis = reportInterval.toMillis();
+        reportScheduler.scheduleWithFixedDelay(this::writeIntermediateReport, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopReportScheduler() {
+        if (reportScheduler != null) {
+            reportScheduler.shutdownNow();
+            try {
+                reportScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeIntermediateReport() {
+        try {
+            List<AggregatedMetrics> aggregatedMetrics = snapshot();
+            analyzer.writeReportFile(aggregatedMetrics);
+
+            // Count the simulated results only, derived scenarios repeat the counts of their representatives
+            long simulations = accumulatorMap.values().stream().mapToLong(ScenarioAccumulator::getCount).sum();
+            System.out.println("Intermediate report written after " + simulations + " simulations");
+        } catch (Exception e) {
+            // A failed snapshot must not stop later ones, the final report is written regardless
+            System.err.println("Failed to write intermediate report: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.test.services;
+
+import com.test.models.SimulationParameters;
+import com.test.services.abstracts.SimulationResultConsumer;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.SneakyThrows;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs every scenario once and fans the results out to all consumers.
+ * <p>
+ * Producers group results into batches and publish each batch to one bounded queue per consumer.
+ * When a consumer falls behind its queue fills up and the producers block, so a slow writer
+ * throttles the simulation instead of growing the heap.
+ */
+@Builder
+public class SimulationPipeline {
+    private static final SimulationResultBatch END_OF_STREAM = new SimulationResultBatch(0);
+    private static final SimulationResultBatch ABORTED = new SimulationResultBatch(0);
+
+    @Singular
+    private final List<SimulationResultConsumer> consumers;
+
+    // Number of results handed over to the consumers at once
+    @Builder.Default
+    private final int batchSize = 1024;
+
+    // Number of batches a consumer may lag behind before producers block
+    @Builder.Default
+    private final int bufferCapacity = 64;
+
+    @Builder.Default
+    private final int producerThreads = Runtime.getRuntime().availableProcessors();
+
+    public void run(List<SimulationParameters> scenarios, int simulationsPerScenario) {
+        Map<SimulationParameters, Integer> simulations = new LinkedHashMap<>();
+        for (SimulationParameters parameters : scenarios) {
+            simulations.merge(parameters, simulationsPerScenario, Integer::sum);
+        }
+        run(simulations);
+    }
+
+    @SneakyThrows
+    public void run(Map<SimulationParameters, Integer> simulationsPerScenario) {
+        // Number the wheels in scenario order, so scenario ids do not depend on which producer comes first
+        simulationsPerScenario.keySet().forEach(parameters -> parameters.getWheel().getVariant());
+
+        List<BlockingQueue<SimulationResultBatch>> buffers = new ArrayList<>();
+        List<Thread> consumerThreads = new ArrayList<>();
+        AtomicReference<Throwable> consumerFailure = new AtomicReference<>();
+
+        for (SimulationResultConsumer consumer : consumers) {
+            BlockingQueue<SimulationResultBatch> buffer = new ArrayBlockingQueue<>(bufferCapacity);
+            buffers.add(buffer);
+
+            Thread thread = new Thread(() -> consume(consumer, buffer, consumerFailure),
+                    "consumer-" + consumer.getClass().getSimpleName());
+            thread.start();
+            consumerThreads.add(thread);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(simulationsPerScenario.size(), producerThreads)));
+        boolean produced = false;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            simulationsPerScenario.forEach((parameters, simulations) ->
+                    futures.add(executorService.submit(() -> produce(parameters, simulations, buffers))));
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            produced = true;
+        } finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(60, TimeUnit.SECONDS);
+
+            // Consumers of a failed run must not publish reports built from part of the results
+            for (BlockingQueue<SimulationResultBatch> buffer : buffers) {
+                buffer.put(produced ? END_OF_STREAM : ABORTED);
+            }
+            for (Thread thread : consumerThreads) {
+                thread.join();
+            }
+        }
+
+        if (consumerFailure.get() != null) {
+            throw consumerFailure.get();
+        }
+    }
+
+    @SneakyThrows
+    private void produce(SimulationParameters parameters, int simulations, List<BlockingQueue<SimulationResultBatch>> buffers) {
+        SimulationService simulationService = SimulationService.builder()
+                .parameters(parameters)
+                .build();
+
+        // Results are written straight into the columns of the batch, no result objects are created
+        for (int remaining = simulations; remaining > 0; remaining -= batchSize) {
+            SimulationResultBatch batch = new SimulationResultBatch(Math.min(batchSize, remaining));
+            simulationService.runSimulations(batch.remainingCapacity(), batch);
+            publish(batch, buffers);
+        }
+    }
+
+    private static void publish(SimulationResultBatch batch, List<BlockingQueue<SimulationResultBatch>> buffers) throws InterruptedException {
+        // The batch is shared by all consumers, nobody modifies it after it has been published
+        for (BlockingQueue<SimulationResultBatch> buffer : buffers) {
+            buffer.put(batch);
+        }
+    }
+
+    @SneakyThrows
+    private static void consume(SimulationResultConsumer consumer, BlockingQueue<SimulationResultBatch> buffer,
+                                AtomicReference<Throwable> failure) {
+        boolean failed = false;
+        boolean aborted = false;
+        while (true) {
+            SimulationResultBatch batch = buffer.take();
+            if (batch == END_OF_STREAM) {
+                break;
+            }
+            if (batch == ABORTED) {
+                aborted = true;
+                break;
+            }
+
+            // After a failure keep draining the buffer so that producers are never blocked forever
+            if (failed) {
+                continue;
+            }
+
+            try {
+                consumer.accept(batch);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                failed = true;
+            }
+        }
+
+        try {
+            if (failed || aborted) {
+                consumer.abort();
+            } else {
+                consumer.complete();
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
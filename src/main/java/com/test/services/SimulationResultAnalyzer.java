@@ -12,6 +12,9 @@ import lombok.SneakyThrows;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collector;
@@ -19,15 +22,33 @@ import java.util.stream.Stream;
 
 @Getter
 public class SimulationResultAnalyzer {
+    private static final String REPORT_FILE_NAME = "simulation_results_analysed.csv";
 
-    @SneakyThrows
     public void generateAggregatedReport(Stream<SimulationResult> simulationResults) {
-        File csvFile = new File("simulation_results_analysed.csv");
-        if (!csvFile.exists()) {
-            csvFile.createNewFile();
-        }
+        writeAggregatedReport(calculateAggregatedMetrics(simulationResults.parallel()).toList());
+    }
 
-        try (Writer writer = new FileWriter(csvFile)) {
+    public void writeAggregatedReport(List<AggregatedMetrics> aggregatedMetrics) {
+        writeAggregatedReport(aggregatedMetrics, new File(REPORT_FILE_NAME));
+    }
+
+    public void writeAggregatedReport(List<AggregatedMetrics> aggregatedMetrics, File csvFile) {
+        writeReportFile(aggregatedMetrics, csvFile);
+        System.out.println("Simulation results have been written to " + csvFile.getAbsolutePath());
+    }
+
+    /**
+     * Writes the report to a temporary file and renames it over the previous one, so readers never see a partial report.
+     */
+    public void writeReportFile(List<AggregatedMetrics> aggregatedMetrics) {
+        writeReportFile(aggregatedMetrics, new File(REPORT_FILE_NAME));
+    }
+
+    @SneakyThrows
+    public void writeReportFile(List<AggregatedMetrics> aggregatedMetrics, File csvFile) {
+        File tempFile = new File(csvFile.getPath() + ".tmp");
+
+        try (Writer writer = new FileWriter(tempFile)) {
             writer.write(String.join(",", AggregatedMetrics.getFieldNames()) + "\n");
 
             ColumnPositionMappingStrategy<AggregatedMetrics> strategy = new ColumnPositionMappingStrategy<>();
@@ -40,11 +61,10 @@ public class SimulationResultAnalyzer {
                     .withApplyQuotesToAll(false)
                     .build();
 
-            Stream<AggregatedMetrics> aggregatedMetricsStream = calculateAggregatedMetrics(simulationResults.parallel());
-            beanToCsv.write(aggregatedMetricsStream.toList());
+            beanToCsv.write(aggregatedMetrics);
         }
 
-        System.out.println("Simulation results have been written to " + csvFile.getAbsolutePath());
+        Files.move(tempFile.toPath(), csvFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     public Stream<AggregatedMetrics> calculateAggregatedMetrics(Stream<SimulationResult> simulationResults) {
@@ -0,0 +1,79 @@
+package com.test.services;
+
+import com.test.services.abstracts.SimulationResultSink;
+
+/**
+ * Results of consecutive simulations stored column by column, the unit handed over by {@link SimulationPipeline}.
+ * Filled once by a producer and then only read, so it can be shared by all consumers.
+ */
+public class SimulationResultBatch implements SimulationResultSink {
+    private final long[] scenarioId;
+    private final long[] initialBalance;
+    private final long[] baseBetAmount;
+    private final int[] maxRounds;
+    private final long[] estimatedProfit;
+    private final long[] balance;
+    private final long[] totalProfit;
+    private final long[] totalLoss;
+    private final int[] roundsPlayed;
+    private final int[] maxWinStreak;
+    private final int[] maxLossStreak;
+
+    // targetReached, outOfMoney and changeBetColorAfterWin packed into the low three bits
+    private final byte[] flags;
+
+    private int size = 0;
+
+    public SimulationResultBatch(int capacity) {
+        scenarioId = new long[capacity];
+        initialBalance = new long[capacity];
+        baseBetAmount = new long[capacity];
+        maxRounds = new int[capacity];
+        estimatedProfit = new long[capacity];
+        balance = new long[capacity];
+        totalProfit = new long[capacity];
+        totalLoss = new long[capacity];
+        roundsPlayed = new int[capacity];
+        maxWinStreak = new int[capacity];
+        maxLossStreak = new int[capacity];
+        flags = new byte[capacity];
+    }
+
+    @Override
+    public void accept(long scenarioId, long initialBalance, long baseBetAmount, int maxRounds, long estimatedProfit,
+                       long balance, long totalProfit, long totalLoss, int roundsPlayed, int maxWinStreak, int maxLossStreak,
+                       boolean targetReached, boolean outOfMoney, boolean changeBetColorAfterWin) {
+        int i = size++;
+        this.scenarioId[i] = scenarioId;
+        this.initialBalance[i] = initialBalance;
+        this.baseBetAmount[i] = baseBetAmount;
+        this.maxRounds[i] = maxRounds;
+        this.estimatedProfit[i] = estimatedProfit;
+        this.balance[i] = balance;
+        this.totalProfit[i] = totalProfit;
+        this.totalLoss[i] = totalLoss;
+        this.roundsPlayed[i] = roundsPlayed;
+        this.maxWinStreak[i] = maxWinStreak;
+        this.maxLossStreak[i] = maxLossStreak;
+        this.flags[i] = (byte) ((targetReached ? 1 : 0) | (outOfMoney ? 2 : 0) | (changeBetColorAfterWin ? 4 : 0));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int remainingCapacity() {
+        return scenarioId.length - size;
+    }
+
+    /**
+     * Replays every result of the batch into the sink, in the order they were added.
+     */
+    public void forEach(SimulationResultSink sink) {
+        for (int i = 0; i < size; i++) {
+            sink.accept(scenarioId[i], initialBalance[i], baseBetAmount[i], maxRounds[i], estimatedProfit[i],
+                    balance[i], totalProfit[i], totalLoss[i], roundsPlayed[i], maxWinStreak[i], maxLossStreak[i],
+                    (flags[i] & 1) != 0, (flags[i] & 2) != 0, (flags[i] & 4) != 0);
+        }
+    }
+}
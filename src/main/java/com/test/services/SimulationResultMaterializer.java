@@ -0,0 +1,39 @@
+package com.test.services;
+
+import com.test.models.SimulationResult;
+import com.test.services.abstracts.SimulationResultSink;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Consumer;
+
+/**
+ * Sink that builds a {@link SimulationResult} for every simulation, for code that needs result objects.
+ * Allocates per simulation, the pipeline consumers do not need it.
+ */
+@RequiredArgsConstructor
+public class SimulationResultMaterializer implements SimulationResultSink {
+    private final Consumer<SimulationResult> target;
+
+    @Override
+    public void accept(long scenarioId, long initialBalance, long baseBetAmount, int maxRounds, long estimatedProfit,
+                       long balance, long totalProfit, long totalLoss, int roundsPlayed, int maxWinStreak, int maxLossStreak,
+                       boolean targetReached, boolean outOfMoney, boolean changeBetColorAfterWin) {
+        target.accept(SimulationResult.builder()
+                .initialBalance(initialBalance)
+                .baseBetAmount(baseBetAmount)
+                .maxRounds(maxRounds)
+                .estimatedProfit(estimatedProfit)
+                .balance(balance)
+                .profit(balance - initialBalance)
+                .totalProfit(totalProfit)
+                .totalLoss(totalLoss)
+                .roundsPlayed(roundsPlayed)
+                .maxWinStreak(maxWinStreak)
+                .maxLossStreak(maxLossStreak)
+                .targetReached(targetReached)
+                .outOfMoney(outOfMoney)
+                .changeBetColorAfterWin(changeBetColorAfterWin)
+                .scenarioId(scenarioId)
+                .build());
+    }
+}
@@ -0,0 +1,75 @@
+package com.test.services;
+
+import com.test.models.SimulationResult;
+import com.test.services.abstracts.SimulationResultConsumer;
+import com.test.utils.Money;
+import lombok.SneakyThrows;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+
+/**
+ * Pipeline consumer that streams every raw simulation result into a CSV file.
+ * Amounts are written in units with their exact decimal value.
+ */
+public class SimulationResultWriter implements SimulationResultConsumer {
+    private final File csvFile;
+    private final Writer writer;
+    private final StringBuilder row = new StringBuilder(256);
+
+    @SneakyThrows
+    public SimulationResultWriter(File csvFile) {
+        this.csvFile = csvFile;
+        this.writer = new BufferedWriter(new FileWriter(csvFile));
+        writer.write(String.join(",", SimulationResult.getFieldNames()) + "\n");
+    }
+
+    @Override
+    @SneakyThrows
+    public void accept(long scenarioId, long initialBalance, long baseBetAmount, int maxRounds, long estimatedProfit,
+                       long balance, long totalProfit, long totalLoss, int roundsPlayed, int maxWinStreak, int maxLossStreak,
+                       boolean targetReached, boolean outOfMoney, boolean changeBetColorAfterWin) {
+        row.setLength(0);
+
+        // Same order as SimulationResult.getFieldNames()
+        Money.appendTo(row, initialBalance);
+        row.append(',');
+        Money.appendTo(row, baseBetAmount);
+        row.append(',').append(maxRounds).append(',');
+        Money.appendTo(row, estimatedProfit);
+        row.append(',');
+        Money.appendTo(row, balance);
+        row.append(',');
+        Money.appendTo(row, balance - initialBalance);
+        row.append(',');
+        Money.appendTo(row, totalProfit);
+        row.append(',');
+        Money.appendTo(row, totalLoss);
+        row.append(',').append(roundsPlayed)
+                .append(',').append(maxWinStreak)
+                .append(',').append(maxLossStreak)
+                .append(',').append(targetReached)
+                .append(',').append(outOfMoney)
+                .append(',').append(changeBetColorAfterWin)
+                .append(',').append(scenarioId)
+                .append('\n');
+
+        writer.append(row);
+    }
+
+    @Override
+    @SneakyThrows
+    public void complete() {
+        writer.close();
+        System.out.println("Simulation results have been written to " + csvFile.getAbsolutePath());
+    }
+
+    @Override
+    @SneakyThrows
+    public void abort() {
+        writer.close();
+        System.err.println("Simulation failed, raw results in " + csvFile.getAbsolutePath() + " are incomplete");
+    }
+}
@@ -1,12 +1,11 @@
 package com.test.services;
 
-import com.test.models.Bet;
+import com.test.models.MartingaleState;
 import com.test.models.RouletteNumber;
 import com.test.models.SimulationParameters;
 import com.test.models.SimulationResult;
 import com.test.models.enums.BetType;
-import com.test.models.enums.Color;
-import com.test.utils.RouletteUtils;
+import com.test.services.abstracts.SimulationResultSink;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 
@@ -16,7 +15,6 @@ import static com.test.models.SimulationParameters.generateScenarioId;
 import static com.test.models.enums.Color.BLACK;
 import static com.test.models.enums.Color.RED;
 import static com.test.utils.RouletteUtils.*;
-import static com.test.utils.RouletteUtils.calculateInitialBalance;
 
 @Slf4j
 @Builder
@@ -24,103 +22,151 @@ public class SimulationService {
     private final SimulationParameters parameters;
 
     public SimulationResult runSimulation() {
-        RouletteService rouletteService = RouletteService.builder()
-                .wheel(RouletteService.createWheel())
-                .random(ThreadLocalRandom.current())
-                .build();
+        RouletteService rouletteService = createRouletteService();
 
-        Color betColor = BLACK;
-
-        double initialBalance = calculateInitialBalance(parameters.getBaseBetAmount());
-        double balance = initialBalance;
+        MartingaleState state = startSimulation();
+        while (state.canPlaceBet()) {
+            if (!playSpin(state, rouletteService, rouletteService.spinWheel())) {
+                break;
+            }
+        }
 
-        double estimatedProfit = estimatedProfit(initialBalance, parameters.getBaseBetAmount(), parameters.getMaxRounds());
+        return toResult(state);
+    }
 
-        double betAmount = parameters.getBaseBetAmount();
+    /**
+     * Runs the given number of simulations and passes each result to the sink. The roulette service and the
+     * simulation state are reused, so nothing is allocated per simulation.
+     */
+    public void runSimulations(int simulations, SimulationResultSink sink) {
+        RouletteService rouletteService = createRouletteService();
+        long scenarioId = generateScenarioId(parameters);
+
+        MartingaleState state = new MartingaleState();
+        for (int i = 0; i < simulations; i++) {
+            startSimulation(state);
+            while (state.canPlaceBet()) {
+                if (!playSpin(state, rouletteService, rouletteService.spinWheel())) {
+                    break;
+                }
+            }
 
-        double totalProfit = 0;
-        double totalLoss = 0;
+            publish(state, scenarioId, sink);
+        }
+    }
 
-        int maxWinStreak = 0;
-        int currentWinStreak = 0;
-        int maxLossStreak = 0;
-        int currentLossStreak = 0;
+    public RouletteService createRouletteService() {
+        return RouletteService.builder()
+                .wheel(parameters.getWheel())
+                .random(ThreadLocalRandom.current())
+                .build();
+    }
 
-        boolean targetReached = false;
-        boolean outOfMoney = false;
+    public MartingaleState startSimulation() {
+        return startSimulation(new MartingaleState());
+    }
 
-        int roundsPlayed = 0;
-        while (balance >= betAmount) {
-            Bet bet = Bet.builder()
-                    .type(BetType.COLOR)
-                    .amount(betAmount)
-                    .bet(betColor)
-                    .build();
+    /**
+     * Resets the given state to the start of a new simulation.
+     */
+    public MartingaleState startSimulation(MartingaleState state) {
+        // All amounts are in minor units, see Money
+        long baseBetAmount = parameters.getBaseBetMinorUnits();
+        long initialBalance = calculateInitialBalance(baseBetAmount);
+
+        state.reset();
+        state.setBaseBetAmount(baseBetAmount);
+        state.setInitialBalance(initialBalance);
+        state.setEstimatedProfit(Math.round(estimatedProfit(initialBalance, baseBetAmount, parameters.getMaxRounds())));
+        state.setBetColor(BLACK);
+        state.setBalance(initialBalance);
+        state.setBetAmount(baseBetAmount);
+        return state;
+    }
 
-            balance -= betAmount; // Place bet
+    /**
+     * Plays one round with the given spin result. Returns false when the simulation is over, the caller
+     * must also stop once {@link MartingaleState#canPlaceBet()} is false.
+     */
+    public boolean playSpin(MartingaleState state, RouletteService rouletteService, RouletteNumber result) {
+        long betAmount = state.getBetAmount();
+        long balance = state.getBalance() - betAmount; // Place bet
 
-            RouletteNumber result = rouletteService.spinWheel();
-            double payout = rouletteService.evaluateBet(bet, result);
+        long payout = rouletteService.evaluateBet(BetType.COLOR, state.getBetColor(), betAmount, result);
 
-            if (payout > 0) {
-                balance += payout;
-                totalProfit += payout - betAmount;
+        balance += payout;
 
-                // Reset bet amount
-                betAmount = parameters.getBaseBetAmount();
+        // Under la partage a zero returns half of the stake, that is a smaller loss and not a win
+        if (payout > betAmount) {
+            state.setTotalProfit(state.getTotalProfit() + payout - betAmount);
 
-                if (parameters.isChangeBetColorAfterWin()) {
-                    betColor = (betColor == BLACK) ? RED : BLACK;
-                }
+            // Reset bet amount
+            betAmount = state.getBaseBetAmount();
 
-                currentLossStreak = 0;
-                currentWinStreak++;
-                maxWinStreak = Math.max(maxWinStreak, currentWinStreak);
-            } else {
-                totalLoss += betAmount;
+            if (parameters.isChangeBetColorAfterWin()) {
+                state.setBetColor((state.getBetColor() == BLACK) ? RED : BLACK);
+            }
 
-                betAmount *= 2;
+            state.setCurrentLossStreak(0);
+            state.setCurrentWinStreak(state.getCurrentWinStreak() + 1);
+            state.setMaxWinStreak(Math.max(state.getMaxWinStreak(), state.getCurrentWinStreak()));
+        } else {
+            state.setTotalLoss(state.getTotalLoss() + betAmount - payout);
 
-                // Adjust bet amount if it exceeds the balance
-                if (betAmount > balance) {
-                    betAmount = balance;
-                }
+            betAmount *= 2;
 
-                currentWinStreak = 0;
-                currentLossStreak++;
-                maxLossStreak = Math.max(maxLossStreak, currentLossStreak);
+            // Adjust bet amount if it exceeds the balance
+            if (betAmount > balance) {
+                betAmount = balance;
             }
 
-            if (balance >= initialBalance + estimatedProfit) {
-                targetReached = true;
-            }
-            if (balance <= 0) {
-                outOfMoney = true;
-                break;
-            }
+            state.setCurrentWinStreak(0);
+            state.setCurrentLossStreak(state.getCurrentLossStreak() + 1);
+            state.setMaxLossStreak(Math.max(state.getMaxLossStreak(), state.getCurrentLossStreak()));
+        }
 
-            // If the player is not in a losing streak and max rounds exceeded, stop the simulation
-            if (roundsPlayed > parameters.getMaxRounds() && betAmount == parameters.getBaseBetAmount()) {
-                break;
-            }
+        state.setBalance(balance);
+        state.setBetAmount(betAmount);
+
+        if (balance >= state.getInitialBalance() + state.getEstimatedProfit()) {
+            state.setTargetReached(true);
+        }
+        if (balance <= 0) {
+            state.setOutOfMoney(true);
+            return false;
+        }
 
-            roundsPlayed++;
+        // If the player is not in a losing streak and max rounds exceeded, stop the simulation
+        if (state.getRoundsPlayed() > parameters.getMaxRounds() && betAmount == state.getBaseBetAmount()) {
+            return false;
         }
 
+        state.setRoundsPlayed(state.getRoundsPlayed() + 1);
+        return true;
+    }
+
+    public void publish(MartingaleState state, long scenarioId, SimulationResultSink sink) {
+        sink.accept(scenarioId, state.getInitialBalance(), state.getBaseBetAmount(), parameters.getMaxRounds(),
+                state.getEstimatedProfit(), state.getBalance(), state.getTotalProfit(), state.getTotalLoss(),
+                state.getRoundsPlayed(), state.getMaxWinStreak(), state.getMaxLossStreak(),
+                state.isTargetReached(), state.isOutOfMoney(), parameters.isChangeBetColorAfterWin());
+    }
+
+    public SimulationResult toResult(MartingaleState state) {
         return SimulationResult.builder()
-                .initialBalance(initialBalance)
-                .baseBetAmount(parameters.getBaseBetAmount())
+                .initialBalance(state.getInitialBalance())
+                .baseBetAmount(state.getBaseBetAmount())
                 .maxRounds(parameters.getMaxRounds())
-                .estimatedProfit(estimatedProfit)
-                .balance(balance)
-                .profit(balance - initialBalance)
-                .totalProfit(totalProfit)
-                .totalLoss(totalLoss)
-                .roundsPlayed(roundsPlayed)
-                .maxWinStreak(maxWinStreak)
-                .maxLossStreak(maxLossStreak)
-                .targetReached(targetReached)
-                .outOfMoney(outOfMoney)
+                .estimatedProfit(state.getEstimatedProfit())
+                .balance(state.getBalance())
+                .profit(state.getBalance() - state.getInitialBalance())
+                .totalProfit(state.getTotalProfit())
+                .totalLoss(state.getTotalLoss())
+                .roundsPlayed(state.getRoundsPlayed())
+                .maxWinStreak(state.getMaxWinStreak())
+                .maxLossStreak(state.getMaxLossStreak())
+                .targetReached(state.isTargetReached())
+                .outOfMoney(state.isOutOfMoney())
                 .changeBetColorAfterWin(parameters.isChangeBetColorAfterWin())
                 .scenarioId(generateScenarioId(parameters))
                 .build();
@@ -0,0 +1,168 @@
+package com.test.services;
+
+import com.test.models.WheelDefinition;
+import com.test.models.abstracts.BetOption;
+import com.test.models.enums.BetType;
+import com.test.models.enums.WheelType;
+import lombok.SneakyThrows;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary journal of spins, bets and payouts.
+ * <p>
+ * Events are encoded into a pre-allocated buffer and written to the file in groups: the buffer is flushed when it
+ * is full and committed every {@code groupCommitRounds} rounds, so many rounds share one write (and one fsync when
+ * {@code forceOnCommit} is set). Rounds that were not committed yet are lost if the process dies.
+ * <p>
+ * File layout: a header ({@link #MAGIC}, {@link #VERSION}, wheel type ordinal, number of pockets) followed by
+ * records. A spin record is {@link #SPIN} and the pocket index (2 bytes), a bet record is {@link #BET}, bet type
+ * ordinal, option ordinal, amount and payout in minor units (19 bytes).
+ * <p>
+ * Appending to an existing journal requires the same wheel it was recorded on. A journal has a single writer, the
+ * rounds of several threads would interleave, so every thread needs its own journal file.
+ */
+public class SpinJournal implements Closeable {
+    public static final int MAGIC = 0x524A4E4C; // "RJNL"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+
+    public static final byte SPIN = 1;
+    public static final byte BET = 2;
+
+    public static final int SPIN_RECORD_SIZE = 2;
+    public static final int BET_RECORD_SIZE = 19;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int DEFAULT_GROUP_COMMIT_ROUNDS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int groupCommitRounds;
+    private final boolean forceOnCommit;
+
+    private int uncommittedRounds = 0;
+
+    public SpinJournal(Path file, WheelDefinition wheel) {
+        this(file, wheel, DEFAULT_BUFFER_SIZE, DEFAULT_GROUP_COMMIT_ROUNDS, false);
+    }
+
+    @SneakyThrows
+    public SpinJournal(Path file, WheelDefinition wheel, int bufferSize, int groupCommitRounds, boolean forceOnCommit) {
+        validateHeader(file, wheel);
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, HEADER_SIZE + BET_RECORD_SIZE));
+        this.groupCommitRounds = groupCommitRounds;
+        this.forceOnCommit = forceOnCommit;
+
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC)
+                    .putShort(VERSION)
+                    .put((byte) wheel.getType().ordinal())
+                    .put((byte) wheel.size());
+        }
+    }
+
+    public void writeSpin(int pocketIndex) {
+        ensureCapacity(SPIN_RECORD_SIZE);
+        buffer.put(SPIN)
+                .put((byte) pocketIndex);
+    }
+
+    public void writeBet(BetType type, BetOption option, long amount, long payout) {
+        ensureCapacity(BET_RECORD_SIZE);
+        buffer.put(BET)
+                .put((byte) type.ordinal())
+                .put((byte) ((Enum<?>) option).ordinal())
+                .putLong(amount)
+                .putLong(payout);
+    }
+
+    /**
+     * Marks the end of a round, commits the pending rounds once the group is complete.
+     */
+    public void endRound() {
+        if (++uncommittedRounds >= groupCommitRounds) {
+            commit();
+        }
+    }
+
+    @SneakyThrows
+    public void commit() {
+        flush();
+        if (forceOnCommit) {
+            channel.force(false);
+        }
+        uncommittedRounds = 0;
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        commit();
+        channel.close();
+    }
+
+    /**
+     * Checks that an existing journal was recorded on the given wheel, so that appended spins can be replayed with it.
+     */
+    @SneakyThrows
+    private static void validateHeader(Path file, WheelDefinition wheel) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                return;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read until the header is complete or the file ends
+            }
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a spin journal: " + file);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported journal version " + version + " in " + file);
+            }
+            int wheelType = header.get() & 0xFF;
+            if (wheelType >= WheelType.values().length) {
+                throw new IllegalStateException("Corrupt journal " + file + " at offset " + (header.position() - 1)
+                        + ": unknown wheel type " + wheelType);
+            }
+            int pockets = header.get() & 0xFF;
+            if (wheelType != wheel.getType().ordinal() || pockets != wheel.size()) {
+                throw new IllegalArgumentException("Journal " + file + " was recorded on a " + WheelType.values()[wheelType]
+                        + " wheel with " + pockets + " pockets, cannot append spins of a " + wheel.getType()
+                        + " wheel with " + wheel.size() + " pockets");
+            }
+        }
+    }
+
+    private void ensureCapacity(int recordSize) {
+        if (buffer.remaining() < recordSize) {
+            flush();
+        }
+    }
+
+    @SneakyThrows
+    private void flush() {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
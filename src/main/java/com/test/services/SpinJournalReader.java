@@ -0,0 +1,122 @@
+package com.test.services;
+
+import com.test.models.WheelDefinition;
+import com.test.models.abstracts.BetOption;
+import com.test.models.enums.*;
+import com.test.models.enums.Number;
+import com.test.services.abstracts.JournalEventVisitor;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.test.services.SpinJournal.*;
+
+/**
+ * Replays a journal written by {@link SpinJournal}. The file is memory-mapped in chunks and decoded without
+ * allocating per event.
+ */
+@RequiredArgsConstructor
+public class SpinJournalReader {
+    private static final BetType[] betTypes = BetType.values();
+    private static final BetOption[][] betOptions = new BetOption[betTypes.length][];
+
+    static {
+        for (BetType type : betTypes) {
+            betOptions[type.ordinal()] = switch (type) {
+                case NUMBER -> Number.values();
+                case COLOR -> Color.values();
+                case ODD_EVEN -> OddEven.values();
+                case HIGH_LOW -> HighLow.values();
+                case DOZEN -> Dozen.values();
+                case COLUMN -> Column.values();
+            };
+        }
+    }
+
+    private final WheelDefinition wheel;
+
+    /**
+     * Feeds every event of the journal to the visitor and returns the number of events.
+     */
+    @SneakyThrows
+    public long replay(Path file, JournalEventVisitor visitor) {
+        long events = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                return 0;
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_SIZE, fileSize));
+            if (fileSize < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a spin journal: " + file);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported journal version " + version + " in " + file);
+            }
+            int wheelTypeOrdinal = header.get() & 0xFF;
+            if (wheelTypeOrdinal >= WheelType.values().length) {
+                throw new IllegalStateException("Corrupt journal " + file + " at offset " + (header.position() - 1)
+                        + ": unknown wheel type " + wheelTypeOrdinal);
+            }
+            WheelType wheelType = WheelType.values()[wheelTypeOrdinal];
+            int pockets = header.get() & 0xFF;
+            if (wheelType != wheel.getType() || pockets != wheel.size()) {
+                throw new IllegalArgumentException("Journal " + file + " was recorded on a " + wheelType + " wheel with "
+                        + pockets + " pockets, not on a " + wheel.getType() + " wheel with " + wheel.size() + " pockets");
+            }
+
+            long position = HEADER_SIZE;
+            while (position < fileSize) {
+                int length = (int) Math.min(WheelBiasDetector.CHUNK_SIZE, fileSize - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                // Records cut by the end of the chunk are read again from the next chunk
+                while (buffer.hasRemaining()) {
+                    int start = buffer.position();
+                    byte tag = buffer.get(start);
+
+                    if (tag == SPIN) {
+                        if (buffer.remaining() < SPIN_RECORD_SIZE) break;
+                        int pocketIndex = buffer.get(start + 1) & 0xFF;
+                        if (pocketIndex >= pockets) {
+                            throw new IllegalStateException("Corrupt journal " + file + " at offset " + (position + start)
+                                    + ": pocket " + pocketIndex + " on a wheel with " + pockets + " pockets");
+                        }
+                        visitor.onSpin(pocketIndex);
+                        buffer.position(start + SPIN_RECORD_SIZE);
+                    } else if (tag == BET) {
+                        if (buffer.remaining() < BET_RECORD_SIZE) break;
+                        int typeOrdinal = buffer.get(start + 1) & 0xFF;
+                        int optionOrdinal = buffer.get(start + 2) & 0xFF;
+                        if (typeOrdinal >= betTypes.length || optionOrdinal >= betOptions[typeOrdinal].length) {
+                            throw new IllegalStateException("Corrupt journal " + file + " at offset " + (position + start)
+                                    + ": bet type " + typeOrdinal + " with option " + optionOrdinal);
+                        }
+                        BetType type = betTypes[typeOrdinal];
+                        BetOption option = betOptions[typeOrdinal][optionOrdinal];
+                        visitor.onBet(type, option, buffer.getLong(start + 3), buffer.getLong(start + 11));
+                        buffer.position(start + BET_RECORD_SIZE);
+                    } else {
+                        throw new IllegalStateException("Corrupt journal " + file + " at offset " + (position + start));
+                    }
+                    events++;
+                }
+
+                // Incomplete record at the end of the file, e.g. the process died in the middle of a write
+                if (buffer.position() == 0) {
+                    break;
+                }
+                position += buffer.position();
+            }
+        }
+
+        return events;
+    }
+}
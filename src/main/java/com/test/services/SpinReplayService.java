@@ -0,0 +1,55 @@
+package com.test.services;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.MartingaleState;
+import com.test.models.ScenarioAccumulator;
+import com.test.models.SimulationParameters;
+import com.test.services.abstracts.JournalEventVisitor;
+
+import java.nio.file.Path;
+
+import static com.test.models.SimulationParameters.generateScenarioId;
+
+/**
+ * Plays the martingale strategy of {@link SimulationService} against recorded spins instead of random ones.
+ * <p>
+ * Simulations are played back to back on the spin sequence, each one starting where the previous one ended.
+ * A simulation still running when the spins run out is discarded.
+ */
+public class SpinReplayService implements JournalEventVisitor {
+    private final SimulationParameters parameters;
+    private final SimulationService simulationService;
+    private final RouletteService rouletteService;
+
+    private final ScenarioAccumulator accumulator = new ScenarioAccumulator();
+    private final MartingaleState state;
+
+    public SpinReplayService(SimulationParameters parameters) {
+        this.parameters = parameters;
+        this.simulationService = SimulationService.builder()
+                .parameters(parameters)
+                .build();
+        this.rouletteService = simulationService.createRouletteService();
+        this.state = simulationService.startSimulation();
+    }
+
+    public AggregatedMetrics replay(Path journal) {
+        new SpinJournalReader(parameters.getWheel()).replay(journal, this);
+        return getAggregatedMetrics();
+    }
+
+    @Override
+    public void onSpin(int pocketIndex) {
+        boolean playing = simulationService.playSpin(state, rouletteService, parameters.getWheel().getPockets().get(pocketIndex));
+
+        if (!playing || !state.canPlaceBet()) {
+            accumulator.add(state.getBalance() - state.getInitialBalance(), state.getRoundsPlayed(),
+                    state.isOutOfMoney(), state.isTargetReached());
+            simulationService.startSimulation(state);
+        }
+    }
+
+    public AggregatedMetrics getAggregatedMetrics() {
+        return accumulator.toAggregatedMetrics(generateScenarioId(parameters));
+    }
+}
@@ -0,0 +1,74 @@
+package com.test.services;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.ScenarioGroup;
+import com.test.models.SimulationParameters;
+import com.test.models.SweepPlan;
+import com.test.services.abstracts.ScenarioInvariance;
+import lombok.Builder;
+import lombok.Singular;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses the scenarios of a sweep into groups that are equivalent under the given invariances, so that each
+ * group is simulated once. Invariances are applied one after the other, a group formed by one of them can be merged
+ * further by the next, and the derivations are chained accordingly.
+ */
+@Builder
+public class SweepPlanner {
+
+    @Singular
+    private final List<ScenarioInvariance> invariances;
+
+    // Simulate each representative with the budget of its whole group instead of the budget of one scenario,
+    // same cost as without the planner but tighter confidence intervals for every member
+    @Builder.Default
+    private final boolean poolSimulations = false;
+
+    public SweepPlan plan(List<SimulationParameters> scenarios, int simulationsPerScenario) {
+        // Number the wheels in scenario order, so scenario ids do not depend on which producer comes first
+        scenarios.forEach(parameters -> parameters.getWheel().getVariant());
+
+        // Start with one group per distinct scenario, the first scenario of a group is its representative
+        Map<SimulationParameters, Map<SimulationParameters, UnaryOperator<AggregatedMetrics>>> groups = new LinkedHashMap<>();
+        for (SimulationParameters parameters : scenarios) {
+            groups.computeIfAbsent(parameters, k -> new LinkedHashMap<>(Map.of(k, UnaryOperator.identity())));
+        }
+
+        for (ScenarioInvariance invariance : invariances) {
+            Map<SimulationParameters, Map<SimulationParameters, UnaryOperator<AggregatedMetrics>>> merged = new LinkedHashMap<>();
+            Map<Object, SimulationParameters> representativeByKey = new HashMap<>();
+
+            groups.forEach((representative, members) -> {
+                Object key = invariance.equivalenceKey(representative);
+                SimulationParameters target = key != null ? representativeByKey.putIfAbsent(key, representative) : null;
+                if (target == null) {
+                    merged.put(representative, members);
+                    return;
+                }
+
+                // Derive the old representative from the new one, then each member from the old representative
+                Map<SimulationParameters, UnaryOperator<AggregatedMetrics>> targetMembers = merged.get(target);
+                members.forEach((member, derive) -> targetMembers.put(member,
+                        metrics -> derive.apply(invariance.derive(metrics, target, representative))));
+            });
+
+            groups = merged;
+        }
+
+        List<ScenarioGroup> scenarioGroups = new ArrayList<>();
+        groups.forEach((representative, members) -> scenarioGroups.add(ScenarioGroup.builder()
+                .representative(representative)
+                .simulations(poolSimulations ? Math.multiplyExact(simulationsPerScenario, members.size()) : simulationsPerScenario)
+                .members(members)
+                .build()));
+
+        return new SweepPlan(scenarioGroups);
+    }
+}
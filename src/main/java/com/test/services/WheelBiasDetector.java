@@ -0,0 +1,448 @@
+package com.test.services;
+
+import com.opencsv.bean.ColumnPositionMappingStrategy;
+import com.opencsv.bean.StatefulBeanToCsv;
+import com.opencsv.bean.StatefulBeanToCsvBuilder;
+import com.test.models.Bet;
+import com.test.models.RouletteNumber;
+import com.test.models.TableSpinStatistics;
+import com.test.models.WheelBiasReport;
+import com.test.models.WheelDefinition;
+import com.test.models.abstracts.BetOption;
+import com.test.models.enums.*;
+import com.test.models.enums.Number;
+import com.test.utils.Money;
+import lombok.Builder;
+import lombok.SneakyThrows;
+import org.apache.commons.math3.distribution.ChiSquaredDistribution;
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks recorded spins against a wheel model and flags tables whose bias makes some bet profitable.
+ * <p>
+ * Spin logs are text files with one spin per line. The last field is the pocket (0, 00, 000 or 1-36) and the
+ * field before it is the table id, so both {@code table,pocket} and {@code timestamp,table,pocket} work.
+ * Lines with a single field belong to table {@value #DEFAULT_TABLE_ID}, lines that cannot be parsed (e.g. headers)
+ * are skipped. Files are memory-mapped in chunks and scanned in parallel, one file per thread.
+ */
+@Builder
+public class WheelBiasDetector {
+    private static final String DEFAULT_TABLE_ID = "default";
+
+    // Part of a file that is mapped at once, must be larger than the longest line. Also used by SpinJournalReader.
+    static final int CHUNK_SIZE = 1 << 28;
+
+    // Offset of the number lookup, 000 is -2
+    private static final int NUMBER_OFFSET = 2;
+
+    @Builder.Default
+    private final WheelDefinition wheel = RouletteService.createWheel();
+
+    // Spins per table in each window that is tested on its own
+    @Builder.Default
+    private final int windowSize = 100_000;
+
+    // Number of neighbouring pockets in a sector
+    @Builder.Default
+    private final int sectorSize = 5;
+
+    @Builder.Default
+    private final double significanceLevel = 0.01;
+
+    @Builder.Default
+    private final int threads = Runtime.getRuntime().availableProcessors();
+
+    @SneakyThrows
+    public List<WheelBiasReport> analyze(List<Path> logFiles) {
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(logFiles.size(), threads)));
+
+        Map<String, TableSpinStatistics> tables = new HashMap<>();
+        try {
+            List<Future<Map<String, TableSpinStatistics>>> futures = new ArrayList<>();
+            for (Path logFile : logFiles) {
+                futures.add(executorService.submit(() -> scan(logFile)));
+            }
+
+            for (Future<Map<String, TableSpinStatistics>> future : futures) {
+                future.get().forEach((key, value) -> tables.merge(key, value, TableSpinStatistics::combine));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        BetEvaluator betEvaluator = new BetEvaluator();
+        return tables.values().stream()
+                .sorted(Comparator.comparing(TableSpinStatistics::getTableId))
+                .map(statistics -> createReport(statistics, betEvaluator))
+                .toList();
+    }
+
+    @SneakyThrows
+    public Map<String, TableSpinStatistics> scan(Path logFile) {
+        int[] numberToPocket = createNumberLookup();
+        Map<String, TableSpinStatistics> tables = new HashMap<>();
+
+        // The table id is only decoded when it differs from the one on the previous line
+        byte[] lastTableId = new byte[0];
+        TableSpinStatistics lastTable = null;
+
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+
+            while (position < fileSize) {
+                long length = Math.min(CHUNK_SIZE, fileSize - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastChunk = position + length == fileSize;
+
+                // Only complete lines are parsed, the rest of the chunk is mapped again with the next one
+                int end = (int) length;
+                if (!lastChunk) {
+                    while (end > 0 && buffer.get(end - 1) != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        throw new IllegalStateException("Line longer than " + CHUNK_SIZE + " bytes in " + logFile);
+                    }
+                }
+
+                int lineStart = 0;
+                while (lineStart < end) {
+                    int lineEnd = lineStart;
+                    int lastComma = -1;
+                    int previousComma = -1;
+                    while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                        if (buffer.get(lineEnd) == ',') {
+                            previousComma = lastComma;
+                            lastComma = lineEnd;
+                        }
+                        lineEnd++;
+                    }
+
+                    int contentEnd = lineEnd;
+                    if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                        contentEnd--;
+                    }
+
+                    int pocket = parsePocket(buffer, lastComma < 0 ? lineStart : lastComma + 1, contentEnd, numberToPocket);
+                    if (pocket >= 0) {
+                        int tableStart = previousComma < 0 ? lineStart : previousComma + 1;
+                        int tableLength = lastComma < 0 ? 0 : lastComma - tableStart;
+
+                        if (lastTable == null || !sameBytes(buffer, tableStart, tableLength, lastTableId)) {
+                            lastTableId = new byte[tableLength];
+                            buffer.get(tableStart, lastTableId);
+                            String tableId = lastComma < 0 ? DEFAULT_TABLE_ID : new String(lastTableId, StandardCharsets.UTF_8).trim();
+                            lastTable = tables.computeIfAbsent(tableId, id -> new TableSpinStatistics(id, wheel.size()));
+                        }
+
+                        lastTable.add(pocket);
+                        if (lastTable.getWindowSpins() == windowSize) {
+                            double pValue = chiSquarePValue(lastTable.getWindowPocketCounts(), lastTable.getWindowSpins());
+                            lastTable.closeWindow(pValue, pValue < significanceLevel);
+                        }
+                    }
+
+                    lineStart = lineEnd + 1;
+                }
+
+                position += end;
+            }
+        }
+
+        return tables;
+    }
+
+    @SneakyThrows
+    public void writeReport(List<WheelBiasReport> reports, File csvFile) {
+        try (Writer writer = new FileWriter(csvFile)) {
+            writer.write(String.join(",", WheelBiasReport.getFieldNames()) + "\n");
+
+            ColumnPositionMappingStrategy<WheelBiasReport> strategy = new ColumnPositionMappingStrategy<>();
+            strategy.setType(WheelBiasReport.class);
+            String[] memberFieldsToBindTo = WheelBiasReport.getFieldNames().toArray(new String[0]);
+            strategy.setColumnMapping(memberFieldsToBindTo);
+
+            StatefulBeanToCsv<WheelBiasReport> beanToCsv = new StatefulBeanToCsvBuilder<WheelBiasReport>(writer)
+                    .withMappingStrategy(strategy)
+                    .withApplyQuotesToAll(false)
+                    .build();
+
+            beanToCsv.write(reports);
+        }
+
+        System.out.println("Wheel bias report has been written to " + csvFile.getAbsolutePath());
+    }
+
+    private WheelBiasReport createReport(TableSpinStatistics statistics, BetEvaluator betEvaluator) {
+        long[] counts = statistics.getPocketCounts();
+        long n = statistics.getSpins();
+        int k = counts.length;
+
+        double chiSquare = chiSquare(counts, n);
+        double gStatistic = gStatistic(counts, n);
+
+        // Single pocket furthest from its expected count
+        NormalDistribution normal = new NormalDistribution();
+        int mostBiasedPocket = 0;
+        double mostBiasedPocketZ = 0;
+        for (int i = 0; i < k; i++) {
+            double p = wheel.getPocketProbability(i);
+            double z = (counts[i] - n * p) / Math.sqrt(n * p * (1 - p));
+            if (Math.abs(z) > Math.abs(mostBiasedPocketZ)) {
+                mostBiasedPocket = i;
+                mostBiasedPocketZ = z;
+            }
+        }
+        double mostBiasedPocketPValue = Math.min(1.0, k * 2 * normal.cumulativeProbability(-Math.abs(mostBiasedPocketZ)));
+
+        // Sectors of neighbouring pockets, a worn or tilted wheel favours a region rather than a single pocket
+        double sectorChiSquarePValue = Double.NaN;
+        double sectorGTestPValue = Double.NaN;
+        String hottestSectorStart = null;
+        double hottestSectorZ = 0;
+        int[] layout = wheel.getLayout();
+        if (layout != null && layout.length > sectorSize) {
+            int sectors = (layout.length + sectorSize - 1) / sectorSize;
+            long[] sectorCounts = new long[sectors];
+            double[] sectorProbabilities = new double[sectors];
+            for (int i = 0; i < layout.length; i++) {
+                sectorCounts[i / sectorSize] += counts[layout[i]];
+                sectorProbabilities[i / sectorSize] += wheel.getPocketProbability(layout[i]);
+            }
+            sectorChiSquarePValue = pValue(chiSquare(sectorCounts, sectorProbabilities, n), sectors - 1);
+            sectorGTestPValue = pValue(gStatistic(sectorCounts, sectorProbabilities, n), sectors - 1);
+
+            // Sliding sectors to locate the hottest region, sectors wrap around the wheel
+            for (int start = 0; start < layout.length; start++) {
+                long sectorCount = 0;
+                double p = 0;
+                for (int j = 0; j < sectorSize; j++) {
+                    int pocket = layout[(start + j) % layout.length];
+                    sectorCount += counts[pocket];
+                    p += wheel.getPocketProbability(pocket);
+                }
+                double z = (sectorCount - n * p) / Math.sqrt(n * p * (1 - p));
+                if (hottestSectorStart == null || z > hottestSectorZ) {
+                    hottestSectorStart = wheel.getPockets().get(layout[start]).getLabel();
+                    hottestSectorZ = z;
+                }
+            }
+        }
+
+        // Bet with the best expected return under the observed pocket frequencies. The lower bounds are
+        // Bonferroni-corrected for the number of bets, like the most biased pocket, since the best of them is kept
+        double zCritical = normal.inverseCumulativeProbability(1 - significanceLevel / betEvaluator.betNames.size());
+        String bestBet = null;
+        double bestBetExpectedReturn = Double.NEGATIVE_INFINITY;
+        double bestBetExpectedReturnLower = Double.NEGATIVE_INFINITY;
+        for (int b = 0; b < betEvaluator.betNames.size(); b++) {
+            double[] payouts = betEvaluator.payouts[b];
+            double mean = 0;
+            double meanSq = 0;
+            for (int i = 0; i < k; i++) {
+                double frequency = (double) counts[i] / n;
+                mean += frequency * payouts[i];
+                meanSq += frequency * payouts[i] * payouts[i];
+            }
+            double expectedReturn = mean - 1;
+            double lower = expectedReturn - zCritical * Math.sqrt(Math.max(0, meanSq - mean * mean) / n);
+
+            if (lower > bestBetExpectedReturnLower) {
+                bestBet = betEvaluator.betNames.get(b);
+                bestBetExpectedReturn = expectedReturn;
+                bestBetExpectedReturnLower = lower;
+            }
+        }
+
+        return WheelBiasReport.builder()
+                .tableId(statistics.getTableId())
+                .spins(n)
+                .chiSquare(chiSquare)
+                .chiSquarePValue(pValue(chiSquare, k - 1))
+                .gStatistic(gStatistic)
+                .gTestPValue(pValue(gStatistic, k - 1))
+                .mostBiasedPocket(wheel.getPockets().get(mostBiasedPocket).getLabel())
+                .mostBiasedPocketZ(mostBiasedPocketZ)
+                .mostBiasedPocketPValue(mostBiasedPocketPValue)
+                .sectorChiSquarePValue(sectorChiSquarePValue)
+                .sectorGTestPValue(sectorGTestPValue)
+                .hottestSectorStart(hottestSectorStart)
+                .hottestSectorZ(hottestSectorZ)
+                .windowsTested(statistics.getWindowsTested())
+                .windowsFlagged(statistics.getWindowsFlagged())
+                .minWindowPValue(statistics.getMinWindowPValue())
+                .bestBet(bestBet)
+                .bestBetExpectedReturn(bestBetExpectedReturn)
+                .bestBetExpectedReturnLower(bestBetExpectedReturnLower)
+                .positiveExpectation(bestBetExpectedReturnLower > 0)
+                .build();
+    }
+
+    private double chiSquarePValue(long[] counts, long n) {
+        return pValue(chiSquare(counts, n), counts.length - 1);
+    }
+
+    private double chiSquare(long[] counts, long n) {
+        double[] probabilities = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            probabilities[i] = wheel.getPocketProbability(i);
+        }
+        return chiSquare(counts, probabilities, n);
+    }
+
+    private double gStatistic(long[] counts, long n) {
+        double[] probabilities = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            probabilities[i] = wheel.getPocketProbability(i);
+        }
+        return gStatistic(counts, probabilities, n);
+    }
+
+    private static double chiSquare(long[] counts, double[] probabilities, long n) {
+        double chiSquare = 0;
+        for (int i = 0; i < counts.length; i++) {
+            double expected = n * probabilities[i];
+            if (expected > 0) {
+                double difference = counts[i] - expected;
+                chiSquare += difference * difference / expected;
+            }
+        }
+        return chiSquare;
+    }
+
+    private static double gStatistic(long[] counts, double[] probabilities, long n) {
+        double g = 0;
+        for (int i = 0; i < counts.length; i++) {
+            double expected = n * probabilities[i];
+            if (counts[i] > 0 && expected > 0) {
+                g += counts[i] * Math.log(counts[i] / expected);
+            }
+        }
+        return 2 * g;
+    }
+
+    private static double pValue(double statistic, int degreesOfFreedom) {
+        return 1 - new ChiSquaredDistribution(degreesOfFreedom).cumulativeProbability(statistic);
+    }
+
+    private int[] createNumberLookup() {
+        int[] numberToPocket = new int[36 + NUMBER_OFFSET + 1];
+        Arrays.fill(numberToPocket, -1);
+        for (int i = 0; i < wheel.size(); i++) {
+            numberToPocket[wheel.getPockets().get(i).getNumber() + NUMBER_OFFSET] = i;
+        }
+        return numberToPocket;
+    }
+
+    /**
+     * Returns the pocket index of the number between start and end, or -1 if it is not a pocket of the wheel.
+     */
+    private static int parsePocket(MappedByteBuffer buffer, int start, int end, int[] numberToPocket) {
+        while (start < end && buffer.get(start) == ' ') start++;
+        while (end > start && buffer.get(end - 1) == ' ') end--;
+
+        int length = end - start;
+        if (length == 0 || length > 3) {
+            return -1;
+        }
+
+        int number = 0;
+        boolean allZeros = true;
+        for (int i = start; i < end; i++) {
+            byte c = buffer.get(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+            allZeros &= c == '0';
+        }
+
+        // 00 and 000 are separate pockets
+        if (allZeros) {
+            number = 1 - length;
+        }
+        if (number > 36) {
+            return -1;
+        }
+
+        return numberToPocket[number + NUMBER_OFFSET];
+    }
+
+    private static boolean sameBytes(MappedByteBuffer buffer, int start, int length, byte[] bytes) {
+        if (length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Payout of every bet on the table for a unit stake, per pocket, as computed by {@link RouletteService#evaluateBet}.
+     */
+    private class BetEvaluator {
+        private final List<String> betNames = new ArrayList<>();
+        private final double[][] payouts;
+
+        BetEvaluator() {
+            RouletteService rouletteService = RouletteService.builder()
+                    .wheel(wheel)
+                    .build();
+
+            List<Bet> bets = new ArrayList<>();
+            for (RouletteNumber pocket : wheel.getPockets()) {
+                bets.add(unitBet(BetType.NUMBER, Number.from(pocket.getNumber())));
+            }
+            addBets(bets, BetType.COLOR, Color.values());
+            addBets(bets, BetType.ODD_EVEN, OddEven.values());
+            addBets(bets, BetType.HIGH_LOW, HighLow.values());
+            addBets(bets, BetType.DOZEN, Dozen.values());
+            addBets(bets, BetType.COLUMN, Column.values());
+
+            payouts = new double[bets.size()][wheel.size()];
+            for (int b = 0; b < bets.size(); b++) {
+                Bet bet = bets.get(b);
+                betNames.add(bet.getType() + ":" + bet.getBet());
+                for (int i = 0; i < wheel.size(); i++) {
+                    payouts[b][i] = Money.toMajorUnits(rouletteService.evaluateBet(bet, wheel.getPockets().get(i)));
+                }
+            }
+        }
+
+        private static void addBets(List<Bet> bets, BetType type, BetOption[] options) {
+            for (BetOption option : options) {
+                bets.add(unitBet(type, option));
+            }
+        }
+
+        private static Bet unitBet(BetType type, BetOption option) {
+            return Bet.builder()
+                    .type(type)
+                    .amount(Money.SCALE)
+                    .bet(option)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.test.services.abstracts;
+
+import com.test.models.abstracts.BetOption;
+import com.test.models.enums.BetType;
+
+/**
+ * Receives the events of a spin journal in the order they were recorded, see {@link com.test.services.SpinJournalReader}.
+ */
+public interface JournalEventVisitor {
+
+    void onSpin(int pocketIndex);
+
+    /**
+     * Called for every bet of the round, after the spin it was settled against. Amounts are in minor units.
+     */
+    default void onBet(BetType type, BetOption option, long amount, long payout) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.test.services.abstracts;
+
+import com.test.models.AggregatedMetrics;
+import com.test.models.SimulationParameters;
+
+/**
+ * A transformation of the simulation parameters that leaves the simulated outcomes unchanged up to a known mapping,
+ * so only one scenario of each equivalence class has to be simulated.
+ */
+public interface ScenarioInvariance {
+
+    /**
+     * Returns a key that is equal for all scenarios equivalent under this invariance, or null when it does not apply.
+     */
+    Object equivalenceKey(SimulationParameters parameters);
+
+    /**
+     * Derives the metrics of {@code target} from the metrics simulated for the equivalent scenario {@code representative}.
+     */
+    AggregatedMetrics derive(AggregatedMetrics representativeMetrics, SimulationParameters representative, SimulationParameters target);
+}
@@ -0,0 +1,30 @@
+package com.test.services.abstracts;
+
+import com.test.services.SimulationResultBatch;
+
+/**
+ * Reads simulation results published by {@link com.test.services.SimulationPipeline}.
+ * Each consumer runs on its own thread, so implementations do not need to be thread-safe.
+ */
+public interface SimulationResultConsumer extends SimulationResultSink {
+
+    /**
+     * Called for every batch, by default each result of the batch is passed to {@link #accept}.
+     */
+    default void accept(SimulationResultBatch batch) {
+        batch.forEach(this);
+    }
+
+    /**
+     * Called once after the last batch has been delivered.
+     */
+    default void complete() {
+    }
+
+    /**
+     * Called once instead of {@link #complete()} when the run failed, either in a producer or in this consumer.
+     * Implementations release their resources without publishing anything built from the partial results.
+     */
+    default void abort() {
+    }
+}
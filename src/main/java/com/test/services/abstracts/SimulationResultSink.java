@@ -0,0 +1,12 @@
+package com.test.services.abstracts;
+
+/**
+ * Receives the outcome of every finished simulation as primitives, so that nothing is allocated per simulation.
+ * Amounts are in minor units, see Money, the profit is {@code balance - initialBalance}.
+ */
+public interface SimulationResultSink {
+
+    void accept(long scenarioId, long initialBalance, long baseBetAmount, int maxRounds, long estimatedProfit,
+                long balance, long totalProfit, long totalLoss, int roundsPlayed, int maxWinStreak, int maxLossStreak,
+                boolean targetReached, boolean outOfMoney, boolean changeBetColorAfterWin);
+}
@@ -0,0 +1,90 @@
+package com.test.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Samples an index from a discrete distribution in constant time (Walker's alias method, Vose's construction).
+ * <p>
+ * A single uniform draw picks both the column and the coin flip between the column and its alias,
+ * so a weighted distribution costs the same per sample as a uniform one.
+ */
+public class AliasSampler {
+    private final double[] probability;
+    private final int[] alias;
+
+    public AliasSampler(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one weight is required");
+        }
+
+        double totalWeight = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            totalWeight += weight;
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Weights must not all be zero");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale the weights so that the average column holds exactly 1
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / totalWeight;
+            if (scaled[i] < 1) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small.push(more);
+            } else {
+                large.push(more);
+            }
+        }
+
+        // Whatever is left is 1 up to rounding errors
+        while (!large.isEmpty()) {
+            int i = large.pop();
+            probability[i] = 1;
+            alias[i] = i;
+        }
+        while (!small.isEmpty()) {
+            int i = small.pop();
+            probability[i] = 1;
+            alias[i] = i;
+        }
+    }
+
+    public int sample(Random random) {
+        int n = probability.length;
+        double u = random.nextDouble() * n;
+
+        // nextDouble() * n can round up to n itself
+        int column = Math.min((int) u, n - 1);
+        return u - column < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,57 @@
+package com.test.utils;
+
+/**
+ * Fixed-point money. Amounts are stored as a {@code long} number of minor units, a thousandth of a unit,
+ * so balances and bets add up exactly and results do not depend on the order of operations.
+ */
+public class Money {
+    public static final int SCALE = 1000;
+
+    private static final int SCALE_DIGITS = 3;
+
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * SCALE);
+    }
+
+    public static double toMajorUnits(long minorUnits) {
+        return minorUnits / (double) SCALE;
+    }
+
+    public static double toMajorUnits(double minorUnits) {
+        return minorUnits / SCALE;
+    }
+
+    /**
+     * Formats the amount in units without rounding, e.g. 1500 as "1.5" and -250 as "-0.25".
+     */
+    public static String format(long minorUnits) {
+        StringBuilder builder = new StringBuilder(24);
+        appendTo(builder, minorUnits);
+        return builder.toString();
+    }
+
+    public static void appendTo(StringBuilder builder, long minorUnits) {
+        if (minorUnits < 0) {
+            builder.append('-');
+        }
+
+        // Works for Long.MIN_VALUE as well since the remainder keeps the sign of the dividend
+        long units = Math.abs(minorUnits / SCALE);
+        int fraction = (int) Math.abs(minorUnits % SCALE);
+        builder.append(units);
+
+        if (fraction != 0) {
+            builder.append('.');
+            int digits = SCALE_DIGITS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            String fractionDigits = Integer.toString(fraction);
+            for (int i = fractionDigits.length(); i < digits; i++) {
+                builder.append('0');
+            }
+            builder.append(fractionDigits);
+        }
+    }
+}
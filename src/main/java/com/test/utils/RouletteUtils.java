@@ -15,7 +15,7 @@ public class RouletteUtils {
         return -(pFail * initialBalance) + ((1 - pFail) * (numberOfRounds / 2d) * baseBet);
     }
 
-    public static double calculateInitialBalance(double baseBet) {
-        return baseBet * Math.pow(2, 10);
+    public static long calculateInitialBalance(long baseBet) {
+        return Math.multiplyExact(baseBet, 1L << 10);
     }
 }